@@ -30,6 +30,15 @@ application {
     mainClass.set("com.example.smartstock.MainApp")
 }
 
+// ./gradlew run -Pjfr records a flight recording with the SmartStock events to build/smartstock.jfr.
+tasks.named<JavaExec>("run") {
+    if (project.hasProperty("jfr")) {
+        jvmArgs("-XX:StartFlightRecording:settings=default," +
+                "settings=${projectDir}/src/main/resources/jfr/smartstock.jfc," +
+                "filename=${layout.buildDirectory.get()}/smartstock.jfr")
+    }
+}
+
 javafx {
     version = "21.0.6"
     modules = listOf("javafx.controls", "javafx.fxml", "javafx.graphics")
@@ -2,6 +2,13 @@ package com.example.smartstock;
 
 import com.example.smartstock.controllers.MainController;
 import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.db.MigrationRunner;
+import com.example.smartstock.metrics.MetricsRegistry;
+import com.example.smartstock.service.StockSnapshotService;
+import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.DbExecutor;
+import com.example.smartstock.util.FxAsync;
+import com.example.smartstock.util.FxStallWatchdog;
 import javafx.application.Application;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
@@ -11,19 +18,41 @@ public class MainApp extends Application {
     
     @Override
     public void start(Stage primaryStage) {
-        try {
-            // Test database connection
-            DatabaseConnection.getInstance().testConnection();
-            
-            // Initialize main controller
-            MainController mainController = new MainController(primaryStage);
-            mainController.initialize();
-            
-        } catch (SQLException e) {
-            showDatabaseError(e);
-        } catch (Exception e) {
-            showGeneralError(e);
-        }
+        // Test the database connection and migrate the schema in the background; the window opens
+        // once that is done. A schema problem is reported but does not keep the application closed.
+        FxAsync.run(
+            () -> {
+                DatabaseConnection.getInstance().testConnection();
+                return new MigrationRunner().runAtStartup();
+            },
+            schemaWarning -> {
+                MetricsRegistry.getInstance().register();
+                FxStallWatchdog.start();
+                try {
+                    MainController mainController = new MainController(primaryStage);
+                    mainController.initialize();
+                } catch (Exception e) {
+                    showGeneralError(e);
+                    return;
+                }
+                schemaWarning.ifPresent(message -> AlertUtil.showWarning("Database Schema", message));
+            },
+            error -> {
+                if (error instanceof SQLException sqlException) {
+                    showDatabaseError(sqlException);
+                } else {
+                    showGeneralError(error instanceof Exception exception ? exception : new RuntimeException(error));
+                }
+            });
+    }
+    
+    @Override
+    public void stop() {
+        FxStallWatchdog.stop();
+        MetricsRegistry.getInstance().unregister();
+        StockSnapshotService.getInstance().shutdown();
+        DbExecutor.shutdown();
+        DatabaseConnection.getInstance().shutdown();
     }
     
     private void showDatabaseError(SQLException e) {
@@ -0,0 +1,24 @@
+package com.example.smartstock.cache;
+
+/**
+ * Point-in-time view of a cache's counters.
+ */
+public record CacheStats(
+    long hits,
+    long misses,
+    long evictions,
+    int size,
+    int maxSize
+) {
+    
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+    
+    @Override
+    public String toString() {
+        return "size=" + size + "/" + maxSize + ", hits=" + hits + ", misses=" + misses +
+               ", evictions=" + evictions + String.format(", hitRate=%.1f%%", hitRate() * 100);
+    }
+}
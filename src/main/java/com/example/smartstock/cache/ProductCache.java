@@ -0,0 +1,130 @@
+package com.example.smartstock.cache;
+
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.models.Product;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of products keyed by ID, with a secondary index on
+ * {@linkplain ProductDAO#skuKey SKU key}. Sized by
+ * {@code cache.product.maxSize} in {@code db.properties}.
+ * <p>
+ * {@code ProductDAO} fills it on reads and keeps it coherent on writes. Entries are copies, so
+ * callers that edit a product they got from the cache cannot change what other callers see.
+ */
+public class ProductCache {
+    private static ProductCache instance;
+    
+    private final int maxSize;
+    private final Map<Integer, Product> byId;
+    private final Map<String, Integer> idsBySku = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    private ProductCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Product> eldest) {
+                if (size() <= ProductCache.this.maxSize) {
+                    return false;
+                }
+                unindexSku(eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+    
+    public static ProductCache getInstance() {
+        if (instance == null) {
+            synchronized (ProductCache.class) {
+                if (instance == null) {
+                    String maxSize = DatabaseConnection.getInstance().getProperty("cache.product.maxSize", "10000");
+                    instance = new ProductCache(Integer.parseInt(maxSize.trim()));
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public synchronized Optional<Product> get(Integer productId) {
+        Product product = byId.get(productId);
+        if (product == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new Product(product));
+    }
+    
+    public synchronized Optional<Product> getBySku(String sku) {
+        Integer productId = isBlank(sku) ? null : idsBySku.get(ProductDAO.skuKey(sku));
+        Product product = productId == null ? null : byId.get(productId);
+        if (product == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new Product(product));
+    }
+    
+    /**
+     * Adds or replaces the entry for {@code product}, which must be a complete row as read from
+     * the database (including category and supplier names).
+     */
+    public synchronized void put(Product product) {
+        if (maxSize <= 0 || product.getProductId() == null) {
+            return;
+        }
+        Product previous = byId.put(product.getProductId(), new Product(product));
+        if (previous != null) {
+            unindexSku(previous);
+        }
+        if (!isBlank(product.getSku())) {
+            idsBySku.put(ProductDAO.skuKey(product.getSku()), product.getProductId());
+        }
+    }
+    
+    /**
+     * Writes a stock level that has just been committed through to the cached entry, if any.
+     */
+    public synchronized void updateStock(Integer productId, int newStock) {
+        Product product = byId.get(productId);
+        if (product != null) {
+            product.setCurrentStock(newStock);
+        }
+    }
+    
+    public synchronized void invalidate(Integer productId) {
+        Product previous = byId.remove(productId);
+        if (previous != null) {
+            unindexSku(previous);
+        }
+    }
+    
+    public synchronized void clear() {
+        byId.clear();
+        idsBySku.clear();
+    }
+    
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), byId.size(), maxSize);
+    }
+    
+    private void unindexSku(Product product) {
+        if (!isBlank(product.getSku())) {
+            idsBySku.remove(ProductDAO.skuKey(product.getSku()), product.getProductId());
+        }
+    }
+    
+    private static boolean isBlank(String sku) {
+        return sku == null || sku.isBlank();
+    }
+}
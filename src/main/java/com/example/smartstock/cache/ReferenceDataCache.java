@@ -0,0 +1,155 @@
+package com.example.smartstock.cache;
+
+import com.example.smartstock.dao.CategoryDAO;
+import com.example.smartstock.dao.SupplierDAO;
+import com.example.smartstock.models.Category;
+import com.example.smartstock.models.Supplier;
+import com.example.smartstock.util.DbExecutor;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, read-mostly copy of all categories and suppliers for pick lists.
+ * <p>
+ * Every write through {@code CategoryDAO} or {@code SupplierDAO} bumps the version and starts a
+ * background reload. A snapshot is only handed out while its version is current, so readers
+ * never see data from before the last write; until the reload lands they load it themselves.
+ */
+public class ReferenceDataCache {
+    private static ReferenceDataCache instance;
+    
+    private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final SupplierDAO supplierDAO = new SupplierDAO();
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile Snapshot snapshot;
+    
+    private ReferenceDataCache() {}
+    
+    public static ReferenceDataCache getInstance() {
+        if (instance == null) {
+            synchronized (ReferenceDataCache.class) {
+                if (instance == null) {
+                    instance = new ReferenceDataCache();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Returns the current snapshot without touching the database, or empty if it has not been
+     * loaded yet or is out of date.
+     */
+    public Optional<Snapshot> current() {
+        Snapshot current = snapshot;
+        return current != null && current.version() == version.get() ? Optional.of(current) : Optional.empty();
+    }
+    
+    /**
+     * Returns the current snapshot, loading it first if necessary. Blocks on the database in
+     * that case, so it must not be called on the JavaFX application thread.
+     */
+    public Snapshot get() throws SQLException {
+        Optional<Snapshot> current = current();
+        if (current.isPresent()) {
+            hits.increment();
+            return current.get();
+        }
+        misses.increment();
+        return load();
+    }
+    
+    /**
+     * Reloads in the background. Called once at startup so the first dialog opens instantly.
+     */
+    public void refresh() {
+        DbExecutor.execute(() -> {
+            try {
+                load();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+    
+    /**
+     * Marks the cached data as out of date and reloads it in the background.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        invalidations.increment();
+        refresh();
+    }
+    
+    /**
+     * Hit and miss counts of {@link #get()}. The cache holds everything, so nothing is evicted;
+     * {@code evictions} counts invalidations instead, and the size is the number of categories
+     * and suppliers.
+     */
+    public CacheStats stats() {
+        Snapshot current = snapshot;
+        int size = current == null ? 0 : current.categories().size() + current.suppliers().size();
+        return new CacheStats(hits.sum(), misses.sum(), invalidations.sum(), size, size);
+    }
+    
+    private Snapshot load() throws SQLException {
+        long loadVersion = version.get();
+        Snapshot loaded = new Snapshot(loadVersion, categoryDAO.findAll(), supplierDAO.findAll());
+        synchronized (this) {
+            // A write that happened during the load makes this result stale; its own reload will replace it.
+            if (loadVersion == version.get() && (snapshot == null || snapshot.version() < loadVersion)) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Immutable categories and suppliers, in name order, plus lookups by ID.
+     */
+    public record Snapshot(
+        long version,
+        List<Category> categories,
+        List<Supplier> suppliers,
+        Map<Integer, Category> categoriesById,
+        Map<Integer, Supplier> suppliersById
+    ) {
+        
+        private Snapshot(long version, List<Category> categories, List<Supplier> suppliers) {
+            this(version, List.copyOf(categories), List.copyOf(suppliers),
+                 indexCategories(categories), indexSuppliers(suppliers));
+        }
+        
+        public Category category(Integer categoryId) {
+            return categoryId == null ? null : categoriesById.get(categoryId);
+        }
+        
+        public Supplier supplier(Integer supplierId) {
+            return supplierId == null ? null : suppliersById.get(supplierId);
+        }
+        
+        private static Map<Integer, Category> indexCategories(List<Category> categories) {
+            Map<Integer, Category> byId = new HashMap<>(categories.size() * 2);
+            for (Category category : categories) {
+                byId.put(category.getCategoryId(), category);
+            }
+            return Map.copyOf(byId);
+        }
+        
+        private static Map<Integer, Supplier> indexSuppliers(List<Supplier> suppliers) {
+            Map<Integer, Supplier> byId = new HashMap<>(suppliers.size() * 2);
+            for (Supplier supplier : suppliers) {
+                byId.put(supplier.getSupplierId(), supplier);
+            }
+            return Map.copyOf(byId);
+        }
+    }
+}
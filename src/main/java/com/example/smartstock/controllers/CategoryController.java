@@ -1,8 +1,10 @@
 package com.example.smartstock.controllers;
 
 import com.example.smartstock.dao.CategoryDAO;
+import com.example.smartstock.dao.OptimisticLockException;
 import com.example.smartstock.models.Category;
 import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -10,8 +12,6 @@ import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
-import java.sql.SQLException;
-import java.util.List;
 
 public class CategoryController {
     private BorderPane mainLayout;
@@ -72,26 +72,20 @@ public class CategoryController {
     }
     
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryDAO.findAll();
-            categoryList.clear();
-            categoryList.addAll(categories);
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to load categories: " + e.getMessage());
-        }
+        FxAsync.load(categoryTable, categoryDAO::findAll,
+            categories -> categoryList.setAll(categories),
+            FxAsync.showError("Failed to load categories"));
     }
     
     private void showAddDialog() {
         Dialog<Category> dialog = createFormDialog(null);
-        dialog.showAndWait().ifPresent(category -> {
-            try {
-                categoryDAO.save(category);
-                loadCategories();
-                AlertUtil.showInfo("Success", "Category added successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to add category: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(category ->
+            FxAsync.run(() -> categoryDAO.save(category),
+                saved -> {
+                    loadCategories();
+                    AlertUtil.showInfo("Success", "Category added successfully!");
+                },
+                FxAsync.showError("Failed to add category")));
     }
     
     private void editSelected() {
@@ -102,15 +96,24 @@ public class CategoryController {
         }
         
         Dialog<Category> dialog = createFormDialog(selected);
-        dialog.showAndWait().ifPresent(category -> {
-            try {
-                categoryDAO.update(category);
-                loadCategories();
-                AlertUtil.showInfo("Success", "Category updated successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to update category: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(category ->
+            FxAsync.run(() -> {
+                    categoryDAO.update(category);
+                    return category;
+                },
+                updated -> {
+                    loadCategories();
+                    AlertUtil.showInfo("Success", "Category updated successfully!");
+                },
+                error -> {
+                    loadCategories();
+                    if (error instanceof OptimisticLockException) {
+                        AlertUtil.showWarning("Edit Conflict", "This category was changed by another user " +
+                            "while you were editing it. The list has been reloaded; please make your changes again.");
+                    } else {
+                        FxAsync.showError("Failed to update category").accept(error);
+                    }
+                }));
     }
     
     private void deleteSelected() {
@@ -122,13 +125,15 @@ public class CategoryController {
         
         if (AlertUtil.showConfirmation("Confirm Delete", 
             "Are you sure you want to delete " + selected.getName() + "?")) {
-            try {
-                categoryDAO.delete(selected.getCategoryId());
-                loadCategories();
-                AlertUtil.showInfo("Success", "Category deleted successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to delete category: " + e.getMessage());
-            }
+            FxAsync.run(() -> {
+                    categoryDAO.delete(selected.getCategoryId());
+                    return selected;
+                },
+                deleted -> {
+                    loadCategories();
+                    AlertUtil.showInfo("Success", "Category deleted successfully!");
+                },
+                FxAsync.showError("Failed to delete category"));
         }
     }
     
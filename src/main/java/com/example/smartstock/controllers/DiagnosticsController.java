@@ -0,0 +1,121 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.metrics.LatencyHistogram;
+import com.example.smartstock.metrics.UiMetrics;
+import com.example.smartstock.util.FxStallWatchdog;
+import com.example.smartstock.util.FxStallWatchdog.Stall;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Recent stalls of the JavaFX application thread, as recorded by {@link FxStallWatchdog}, with
+ * the stack the thread was stuck in. Updates live while the view is shown.
+ */
+public class DiagnosticsController {
+    private BorderPane mainLayout;
+    private TableView<Stall> stallTable;
+    private ObservableList<Stall> stallList = FXCollections.observableArrayList();
+    private DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+        .withZone(ZoneId.systemDefault());
+    private final FxStallWatchdog.Listener stallListener = stall -> loadStalls();
+    
+    private TextArea stackArea;
+    private Label summaryLabel;
+    
+    public DiagnosticsController(BorderPane mainLayout) {
+        this.mainLayout = mainLayout;
+    }
+    
+    public void show() {
+        VBox view = new VBox(15);
+        view.setPadding(new Insets(20));
+        
+        Label titleLabel = new Label("Diagnostics");
+        titleLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
+        
+        summaryLabel = new Label();
+        
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> loadStalls());
+        
+        Button clearBtn = new Button("Clear");
+        clearBtn.setOnAction(e -> {
+            FxStallWatchdog.clearHistory();
+            loadStalls();
+        });
+        
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox infoBar = new HBox(10, summaryLabel, spacer, refreshBtn, clearBtn);
+        infoBar.setAlignment(Pos.CENTER_LEFT);
+        
+        stallTable = new TableView<>();
+        stallTable.setItems(stallList);
+        stallTable.setPlaceholder(new Label("No UI stalls of " + FxStallWatchdog.getThresholdMillis() +
+                                            " ms or more recorded"));
+        
+        TableColumn<Stall, String> timeCol = new TableColumn<>("Started");
+        timeCol.setCellValueFactory(data ->
+            new ReadOnlyObjectWrapper<>(timeFormatter.format(data.getValue().startedAt())));
+        timeCol.setPrefWidth(180);
+        
+        TableColumn<Stall, Long> durationCol = new TableColumn<>("Duration (ms)");
+        durationCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().durationMillis()));
+        durationCol.setPrefWidth(110);
+        
+        TableColumn<Stall, String> locationCol = new TableColumn<>("Stuck In");
+        locationCol.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue().location()));
+        locationCol.setPrefWidth(500);
+        
+        stallTable.getColumns().addAll(timeCol, durationCol, locationCol);
+        
+        stackArea = new TextArea();
+        stackArea.setEditable(false);
+        stackArea.setPromptText("Select a stall to see the JavaFX application thread's stack");
+        stackArea.setStyle("-fx-font-family: monospace;");
+        stackArea.setPrefRowCount(12);
+        stallTable.getSelectionModel().selectedItemProperty().addListener((obs, oldStall, stall) ->
+            stackArea.setText(stall == null ? "" : stall.stackTrace()));
+        
+        view.getChildren().addAll(titleLabel, infoBar, stallTable, stackArea);
+        VBox.setVgrow(stallTable, Priority.ALWAYS);
+        
+        mainLayout.setCenter(view);
+        
+        // Follow the watchdog while this view is on screen.
+        FxStallWatchdog.addListener(stallListener);
+        mainLayout.centerProperty().addListener(new ChangeListener<Node>() {
+            @Override
+            public void changed(ObservableValue<? extends Node> observable, Node oldCenter, Node newCenter) {
+                if (newCenter != view) {
+                    FxStallWatchdog.removeListener(stallListener);
+                    observable.removeListener(this);
+                }
+            }
+        });
+        loadStalls();
+    }
+    
+    private void loadStalls() {
+        stallList.setAll(FxStallWatchdog.recentStalls());
+        updateSummary();
+    }
+    
+    private void updateSummary() {
+        UiMetrics metrics = UiMetrics.getInstance();
+        LatencyHistogram.Snapshot heartbeat = metrics.heartbeatDelay();
+        summaryLabel.setText(String.format("%d stall(s) since start, %d ms in total; heartbeat delay p99 %.0f ms, max %.0f ms",
+                                           metrics.stallCount(), metrics.stalledMillis(),
+                                           heartbeat.percentileMillis(99), heartbeat.maxMillis()));
+    }
+}
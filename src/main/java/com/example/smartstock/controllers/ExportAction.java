@@ -0,0 +1,58 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.service.ExportService;
+import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.DbExecutor;
+import javafx.concurrent.Task;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Asks for a target file and runs an export as a cancellable background task with a progress
+ * dialog. The format follows the chosen file name ({@code .csv}, {@code .json}, optionally
+ * {@code .gz}).
+ */
+public final class ExportAction {
+    
+    @FunctionalInterface
+    public interface Job {
+        long run(Path file, ExportService.Format format, boolean gzip, ExportService.Progress progress) throws Exception;
+    }
+    
+    private ExportAction() {}
+    
+    public static void run(Stage owner, String title, String defaultFileName, Job job) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.setInitialFileName(defaultFileName);
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv"),
+            new FileChooser.ExtensionFilter("CSV, gzip-compressed", "*.csv.gz"),
+            new FileChooser.ExtensionFilter("JSON", "*.json"),
+            new FileChooser.ExtensionFilter("JSON, gzip-compressed", "*.json.gz"));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) {
+            return;
+        }
+        
+        Path path = file.toPath();
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return job.run(path, ExportService.formatFor(path), ExportService.isGzip(path), (rowsWritten, totalRows) -> {
+                    updateProgress(rowsWritten, totalRows);
+                    updateMessage(rowsWritten + (totalRows >= 0 ? " of " + totalRows : "") + " rows written");
+                });
+            }
+        };
+        task.setOnSucceeded(e ->
+            AlertUtil.showInfo("Export Finished", task.getValue() + " rows written to\n" + path));
+        task.setOnFailed(e ->
+            AlertUtil.showError("Export Failed", "Export failed: " + task.getException().getMessage()));
+        
+        new TaskProgressDialog(owner, title, task).show();
+        DbExecutor.execute(task);
+    }
+}
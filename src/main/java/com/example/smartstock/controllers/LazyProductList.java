@@ -0,0 +1,201 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.dao.ProductFilter;
+import com.example.smartstock.metrics.ViewLoadEvent;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.util.DbExecutor;
+import com.example.smartstock.util.FxAsync;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only product list for the product table that only holds the pages around what is on
+ * screen. {@code size()} is the catalog count; {@code get(i)} returns a placeholder row until
+ * the page containing {@code i} has been loaded in the background, then the rows are replaced
+ * in place. Loaded pages are kept in an LRU cache and the next page in the scroll direction is
+ * prefetched.
+ * <p>
+ * All state is confined to the JavaFX application thread; only the DAO calls run elsewhere.
+ * Load failures are reported once per {@link #refresh()}; a failed page is requested again the
+ * next time one of its rows is shown.
+ */
+public class LazyProductList extends ObservableListBase<Product> {
+    private final ProductDAO productDAO;
+    private final ProductFilter filter;
+    private final int pageSize;
+    private final Map<Integer, List<Product>> pages;
+    // Last row of every page seen so far, so the following page can be fetched with a keyset seek.
+    private final Map<Integer, Product> pageTails = new HashMap<>();
+    private final Set<Integer> pendingPages = new HashSet<>();
+    private final Product placeholder;
+    
+    private int size;
+    private int generation;
+    private int lastRequestedPage = -1;
+    private boolean failureReported;
+    
+    public LazyProductList(ProductDAO productDAO, ProductFilter filter, int pageSize, int maxCachedPages) {
+        this.productDAO = productDAO;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Product>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+        
+        placeholder = new Product();
+        placeholder.setName("Loading...");
+        placeholder.setUnitPrice(null);
+        placeholder.setCurrentStock(null);
+        placeholder.setMinimumStock(null);
+    }
+    
+    /**
+     * Whether {@code product} is the stand-in returned for rows that are not loaded yet.
+     */
+    public boolean isPlaceholder(Product product) {
+        return product == placeholder;
+    }
+    
+    @Override
+    public Product get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        
+        int page = index / pageSize;
+        List<Product> rows = pages.get(page);
+        int offset = index % pageSize;
+        Product row = rows != null && offset < rows.size() ? rows.get(offset) : null;
+        if (row == null) {
+            requestPage(page);
+        }
+        
+        if (page != lastRequestedPage) {
+            int direction = page > lastRequestedPage ? 1 : -1;
+            lastRequestedPage = page;
+            requestPage(page + direction);
+        }
+        return row != null ? row : placeholder;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Drops all loaded pages and re-reads the row count. Rows that stay in range are replaced
+     * rather than removed, so the table keeps its scroll position.
+     */
+    public void refresh() {
+        int requestGeneration = ++generation;
+        pages.clear();
+        pageTails.clear();
+        pendingPages.clear();
+        lastRequestedPage = -1;
+        failureReported = false;
+        
+        DbExecutor.execute(() -> {
+            try {
+                int count = productDAO.count(filter);
+                Platform.runLater(() -> applySize(requestGeneration, count));
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> reportFailure(requestGeneration, e));
+            }
+        });
+    }
+    
+    private void applySize(int requestGeneration, int newSize) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        
+        int oldSize = size;
+        size = newSize;
+        int common = Math.min(oldSize, newSize);
+        
+        beginChange();
+        if (common > 0) {
+            nextReplace(0, common, Collections.nCopies(common, placeholder));
+        }
+        if (newSize > oldSize) {
+            nextAdd(oldSize, newSize);
+        } else if (oldSize > newSize) {
+            nextRemove(newSize, Collections.nCopies(oldSize - newSize, placeholder));
+        }
+        endChange();
+    }
+    
+    private void requestPage(int page) {
+        if (page < 0 || page * pageSize >= size || pages.containsKey(page) || !pendingPages.add(page)) {
+            return;
+        }
+        
+        int requestGeneration = generation;
+        Product seekAfter = page == 0 ? null : pageTails.get(page - 1);
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        DbExecutor.execute(() -> {
+            try {
+                List<Product> rows = page == 0 || seekAfter != null
+                    ? productDAO.findPage(filter, seekAfter, pageSize)
+                    : productDAO.findPageAt(filter, page * pageSize, pageSize);
+                Platform.runLater(() -> {
+                    applyPage(requestGeneration, page, rows);
+                    event.finish("LazyProductList.requestPage", "load", false);
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    // No longer pending, so the page is fetched again when one of its rows is laid out.
+                    if (requestGeneration == generation) {
+                        pendingPages.remove(page);
+                    }
+                    event.finish("LazyProductList.requestPage", "load", true);
+                    reportFailure(requestGeneration, e);
+                });
+            }
+        });
+    }
+    
+    private void reportFailure(int requestGeneration, Throwable error) {
+        // The alert runs a nested event loop in which further pages may fail; show it only once.
+        if (requestGeneration != generation || failureReported) {
+            return;
+        }
+        failureReported = true;
+        FxAsync.showError("Failed to load products").accept(error);
+    }
+    
+    private void applyPage(int requestGeneration, int page, List<Product> rows) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        
+        pendingPages.remove(page);
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            pageTails.put(page, rows.get(rows.size() - 1));
+        }
+        
+        int from = page * pageSize;
+        int to = Math.min(from + rows.size(), size);
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, placeholder));
+            endChange();
+        }
+    }
+}
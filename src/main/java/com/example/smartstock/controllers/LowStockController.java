@@ -2,15 +2,22 @@ package com.example.smartstock.controllers;
 
 import com.example.smartstock.dao.ProductDAO;
 import com.example.smartstock.models.Product;
+import com.example.smartstock.service.LowStockTracker;
 import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.FxAsync;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import java.math.BigDecimal;
-import java.sql.SQLException;
+import java.util.Comparator;
 import java.util.List;
 
 public class LowStockController {
@@ -18,6 +25,8 @@ public class LowStockController {
     private ProductDAO productDAO;
     private TableView<Product> lowStockTable;
     private ObservableList<Product> lowStockList = FXCollections.observableArrayList();
+    private final LowStockTracker tracker = LowStockTracker.getInstance();
+    private final LowStockTracker.Listener trackerListener = event -> Platform.runLater(() -> applyChange(event));
     
     public LowStockController(BorderPane mainLayout, ProductDAO productDAO) {
         this.mainLayout = mainLayout;
@@ -34,6 +43,14 @@ public class LowStockController {
         Label infoLabel = new Label("Products that need restocking:");
         infoLabel.setStyle("-fx-font-size: 14px;");
         
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> reloadLowStockProducts());
+        
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox infoBar = new HBox(10, infoLabel, spacer, refreshBtn);
+        infoBar.setAlignment(Pos.CENTER_LEFT);
+        
         lowStockTable = new TableView<>();
         lowStockTable.setItems(lowStockList);
         
@@ -98,24 +115,56 @@ public class LowStockController {
         lowStockTable.getColumns().addAll(idCol, nameCol, skuCol, categoryCol, supplierCol, 
                                           currentCol, minCol, neededCol);
         
-        view.getChildren().addAll(titleLabel, infoLabel, lowStockTable);
+        view.getChildren().addAll(titleLabel, infoBar, lowStockTable);
         VBox.setVgrow(lowStockTable, Priority.ALWAYS);
         
         mainLayout.setCenter(view);
+        
+        // Follow the tracker while this view is on screen.
+        tracker.addListener(trackerListener);
+        mainLayout.centerProperty().addListener(new ChangeListener<Node>() {
+            @Override
+            public void changed(ObservableValue<? extends Node> observable, Node oldCenter, Node newCenter) {
+                if (newCenter != view) {
+                    tracker.removeListener(trackerListener);
+                    observable.removeListener(this);
+                }
+            }
+        });
         loadLowStockProducts();
     }
     
     private void loadLowStockProducts() {
-        try {
-            List<Product> products = productDAO.findLowStock();
-            lowStockList.clear();
-            lowStockList.addAll(products);
-            
-            if (products.isEmpty()) {
-                AlertUtil.showInfo("Low Stock", "No products are currently low on stock!");
-            }
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to load low stock products: " + e.getMessage());
+        if (!tracker.isSeeded()) {
+            reloadLowStockProducts();
+            return;
+        }
+        showProducts(tracker.snapshot());
+    }
+    
+    /**
+     * Re-reads the low-stock set from the database, e.g. to pick up changes made elsewhere.
+     */
+    private void reloadLowStockProducts() {
+        FxAsync.load(lowStockTable, () -> tracker.seed(productDAO),
+            this::showProducts,
+            FxAsync.showError("Failed to load low stock products"));
+    }
+    
+    private void showProducts(List<Product> products) {
+        lowStockList.setAll(products);
+        if (products.isEmpty()) {
+            AlertUtil.showInfo("Low Stock", "No products are currently low on stock!");
+        }
+    }
+    
+    private void applyChange(LowStockTracker.Event event) {
+        Product changed = event.product();
+        lowStockList.removeIf(product -> product.getProductId().equals(changed.getProductId()));
+        if (event.change() != LowStockTracker.Change.RECOVERED) {
+            lowStockList.add(changed);
+            FXCollections.sort(lowStockList, Comparator.comparing(Product::getName,
+                Comparator.nullsLast(Comparator.naturalOrder())));
         }
     }
 }
\ No newline at end of file
@@ -1,31 +1,64 @@
 package com.example.smartstock.controllers;
 
+import com.example.smartstock.cache.ReferenceDataCache;
 import com.example.smartstock.dao.*;
+import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.metrics.ViewLoadEvent;
 import com.example.smartstock.models.*;
+import com.example.smartstock.search.ProductSearchIndex;
+import com.example.smartstock.service.ExportService;
+import com.example.smartstock.service.LedgerArchiveService;
+import com.example.smartstock.service.LowStockTracker;
+import com.example.smartstock.service.ProductCsvImporter;
+import com.example.smartstock.service.ProductUpdateService;
+import com.example.smartstock.service.StockSnapshotService;
 import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.DbExecutor;
+import com.example.smartstock.util.FxAsync;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.controlsfx.control.Notifications;
+import java.io.File;
 import java.sql.SQLException;
 import java.util.List;
 
 public class MainController {
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    
     private final Stage primaryStage;
     private final ProductDAO productDAO = new ProductDAO();
     private final CategoryDAO categoryDAO = new CategoryDAO();
     private final SupplierDAO supplierDAO = new SupplierDAO();
+    private final StockMovementDAO movementDAO = new StockMovementDAO();
+    private final StockSnapshotDAO snapshotDAO = new StockSnapshotDAO();
     private final StockTransactionDAO transactionDAO = new StockTransactionDAO();
+    private final ProductUpdateService productUpdateService = new ProductUpdateService(productDAO);
+    private final ExportService exportService = new ExportService(productDAO, transactionDAO);
+    private final ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
+    // null means the in-memory index; otherwise searches always go to the database in this mode.
+    private final SearchMode sqlSearchMode = readSearchMode();
     
     private BorderPane mainLayout;
     private TableView<Product> productTable;
-    private ObservableList<Product> productList = FXCollections.observableArrayList();
+    private final LazyProductList catalogList = new LazyProductList(productDAO, ProductFilter.all(), 100, 20);
+    private ObservableList<Product> searchResults = FXCollections.observableArrayList();
+    
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(250));
+    private Task<List<Product>> searchTask;
+    private CancellationToken searchToken;
+    private Label searchStatusLabel;
     
     public MainController(Stage primaryStage) {
         this.primaryStage = primaryStage;
@@ -46,6 +79,42 @@ public class MainController {
         
         loadProducts();
         checkLowStock();
+        buildSearchIndex();
+        ReferenceDataCache.getInstance().refresh();
+        StockSnapshotService.getInstance().start();
+        LedgerArchiveService.getInstance().start();
+    }
+    
+    /**
+     * The configured SQL search mode, or {@code null} for the in-memory index. An unknown value
+     * falls back to the index rather than keeping the application from starting.
+     */
+    private static SearchMode readSearchMode() {
+        String mode = DatabaseConnection.getInstance().getProperty("search.mode", "INDEX").trim().toUpperCase();
+        if (mode.equals("INDEX")) {
+            return null;
+        }
+        try {
+            return SearchMode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown search.mode \"" + mode + "\", using INDEX; expected INDEX, " +
+                               "NATURAL_LANGUAGE, BOOLEAN or LIKE");
+            return null;
+        }
+    }
+    
+    private void buildSearchIndex() {
+        if (sqlSearchMode != null) {
+            return;
+        }
+        DbExecutor.execute(() -> {
+            try {
+                searchIndex.build(productDAO);
+            } catch (SQLException e) {
+                // Searches keep using the database until the index is available.
+                e.printStackTrace();
+            }
+        });
     }
     
     private HBox createTopBar() {
@@ -63,13 +132,17 @@ public class MainController {
         TextField searchField = new TextField();
         searchField.setPromptText("Search products...");
         searchField.setPrefWidth(300);
-        searchField.textProperty().addListener((obs, old, newVal) -> searchProducts(newVal));
+        searchField.textProperty().addListener((obs, old, newVal) -> searchDebounce.playFromStart());
+        searchDebounce.setOnFinished(e -> searchProducts(searchField.getText()));
+        
+        searchStatusLabel = new Label();
+        searchStatusLabel.setStyle("-fx-text-fill: #bdc3c7;");
         
         Button refreshBtn = new Button("Refresh");
         refreshBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
         refreshBtn.setOnAction(e -> loadProducts());
         
-        topBar.getChildren().addAll(titleLabel, spacer, searchField, refreshBtn);
+        topBar.getChildren().addAll(titleLabel, spacer, searchStatusLabel, searchField, refreshBtn);
         return topBar;
     }
     
@@ -84,14 +157,19 @@ public class MainController {
         Button suppliersBtn = createSidebarButton("Suppliers");
         Button transactionsBtn = createSidebarButton("Transactions");
         Button lowStockBtn = createSidebarButton("Low Stock");
+        Button movementsBtn = createSidebarButton("Movements");
+        Button diagnosticsBtn = createSidebarButton("Diagnostics");
         
         productsBtn.setOnAction(e -> showProductView());
         categoriesBtn.setOnAction(e -> showCategoryView());
         suppliersBtn.setOnAction(e -> showSupplierView());
         transactionsBtn.setOnAction(e -> showTransactionView());
         lowStockBtn.setOnAction(e -> showLowStockView());
+        movementsBtn.setOnAction(e -> showMovementReportView());
+        diagnosticsBtn.setOnAction(e -> showDiagnosticsView());
         
-        sidebar.getChildren().addAll(productsBtn, categoriesBtn, suppliersBtn, transactionsBtn, lowStockBtn);
+        sidebar.getChildren().addAll(productsBtn, categoriesBtn, suppliersBtn, transactionsBtn, lowStockBtn, movementsBtn,
+                                     diagnosticsBtn);
         return sidebar;
     }
     
@@ -132,10 +210,38 @@ public class MainController {
         stockBtn.setStyle("-fx-background-color: #9b59b6; -fx-text-fill: white;");
         stockBtn.setOnAction(e -> showStockTransactionDialog());
         
-        toolbar.getChildren().addAll(addBtn, editBtn, deleteBtn, stockBtn);
+        Button multiStockBtn = new Button("Multi-line Stock");
+        multiStockBtn.setStyle("-fx-background-color: #8e44ad; -fx-text-fill: white;");
+        multiStockBtn.setOnAction(e -> showStockReceivingDialog());
+        
+        Button importBtn = new Button("Import CSV");
+        importBtn.setOnAction(e -> importProducts());
+        
+        Button exportBtn = new Button("Export");
+        exportBtn.setOnAction(e -> ExportAction.run(primaryStage, "Export Products", "products.csv",
+            (file, format, gzip, progress) -> exportService.exportProducts(file, format, gzip, progress)));
+        
+        StockAsOfColumn stockAsOfCol = new StockAsOfColumn(snapshotDAO);
+        
+        Region toolbarSpacer = new Region();
+        HBox.setHgrow(toolbarSpacer, Priority.ALWAYS);
+        
+        DatePicker asOfPicker = new DatePicker();
+        asOfPicker.setPromptText("Stock as of...");
+        asOfPicker.setPrefWidth(140);
+        asOfPicker.setOnAction(e -> stockAsOfCol.setDate(asOfPicker.getValue()));
+        
+        Button clearAsOfBtn = new Button("Clear");
+        clearAsOfBtn.setOnAction(e -> asOfPicker.setValue(null));
+        
+        toolbar.getChildren().addAll(addBtn, editBtn, deleteBtn, stockBtn, multiStockBtn, importBtn, exportBtn,
+                                     toolbarSpacer, new Label("History:"), asOfPicker, clearAsOfBtn);
         
         productTable = new TableView<>();
-        productTable.setItems(productList);
+        productTable.setItems(catalogList);
+        // The windowed catalog cannot be sorted in memory; only search results are sortable.
+        productTable.setSortPolicy(table ->
+            table.getItems() != catalogList && TableView.DEFAULT_SORT_POLICY.call(table));
         
         TableColumn<Product, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("productId"));
@@ -187,7 +293,8 @@ public class MainController {
         minStockCol.setCellValueFactory(new PropertyValueFactory<>("minimumStock"));
         minStockCol.setPrefWidth(80);
         
-        productTable.getColumns().addAll(idCol, nameCol, skuCol, categoryCol, supplierCol, priceCol, stockCol, minStockCol);
+        productTable.getColumns().addAll(idCol, nameCol, skuCol, categoryCol, supplierCol, priceCol, stockCol,
+                                         stockAsOfCol, minStockCol);
         
         view.getChildren().addAll(titleLabel, toolbar, productTable);
         VBox.setVgrow(productTable, Priority.ALWAYS);
@@ -196,78 +303,198 @@ public class MainController {
     }
     
     private void loadProducts() {
-        try {
-            List<Product> products = productDAO.findAll();
-            productList.clear();
-            productList.addAll(products);
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to load products: " + e.getMessage());
-        }
+        productTable.setItems(catalogList);
+        catalogList.refresh();
     }
     
+    /**
+     * Runs a search in the background. A newer search cancels the one in flight, and only the
+     * latest search's results reach the table.
+     */
     private void searchProducts(String keyword) {
+        cancelSearch();
         if (keyword == null || keyword.trim().isEmpty()) {
+            searchStatusLabel.setText("");
             loadProducts();
             return;
         }
         
-        try {
-            List<Product> products = productDAO.searchProducts(keyword);
-            productList.clear();
-            productList.addAll(products);
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to search products: " + e.getMessage());
+        String trimmed = keyword.trim();
+        CancellationToken token = new CancellationToken();
+        long started = System.nanoTime();
+        Task<List<Product>> task = new Task<>() {
+            @Override
+            protected List<Product> call() throws Exception {
+                if (sqlSearchMode == null && searchIndex.isReady()) {
+                    return productDAO.findByIds(searchIndex.search(trimmed, SEARCH_RESULT_LIMIT));
+                }
+                SearchMode mode = sqlSearchMode != null ? sqlSearchMode : SearchMode.LIKE;
+                return productDAO.searchProducts(trimmed, mode, SEARCH_RESULT_LIMIT, token);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (task != searchTask) {
+                return;
+            }
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            searchResults.setAll(task.getValue());
+            productTable.setItems(searchResults);
+            searchStatusLabel.setText(task.getValue().size() + " result(s) in " + elapsedMs + " ms");
+        });
+        task.setOnFailed(e -> {
+            if (task != searchTask || token.isCancelled()) {
+                return;
+            }
+            searchStatusLabel.setText("");
+            AlertUtil.showError("Database Error", "Failed to search products: " + task.getException().getMessage());
+        });
+        
+        searchTask = task;
+        searchToken = token;
+        searchStatusLabel.setText("Searching...");
+        DbExecutor.execute(task);
+    }
+    
+    private void cancelSearch() {
+        if (searchTask != null) {
+            searchToken.cancel();
+            searchTask.cancel(false);
+            searchTask = null;
+            searchToken = null;
         }
     }
     
+    /**
+     * The selected product, or {@code null} if nothing or a row that is still loading is selected.
+     */
+    private Product getSelectedProduct() {
+        Product selected = productTable.getSelectionModel().getSelectedItem();
+        return selected == null || catalogList.isPlaceholder(selected) ? null : selected;
+    }
+    
+    /**
+     * Seeds the low-stock tracker and shows the startup summary; after that every product that
+     * drops below its minimum raises its own alert as soon as the change is saved.
+     */
     private void checkLowStock() {
-        try {
-            List<Product> lowStockProducts = productDAO.findLowStock();
-            if (!lowStockProducts.isEmpty()) {
-                Notifications.create()
+        LowStockTracker tracker = LowStockTracker.getInstance();
+        tracker.addListener(event -> {
+            if (event.change() == LowStockTracker.Change.BECAME_LOW) {
+                Product product = event.product();
+                Platform.runLater(() -> Notifications.create()
                     .title("Low Stock Alert")
-                    .text(lowStockProducts.size() + " product(s) are low on stock!")
-                    .showWarning();
+                    .text(product.getName() + " is low on stock (" + product.getCurrentStock() +
+                          " left, minimum " + product.getMinimumStock() + ")")
+                    .showWarning());
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
+        
+        FxAsync.run(() -> tracker.seed(productDAO),
+            lowStockProducts -> {
+                if (!lowStockProducts.isEmpty()) {
+                    Notifications.create()
+                        .title("Low Stock Alert")
+                        .text(lowStockProducts.size() + " product(s) are low on stock!")
+                        .showWarning();
+                }
+            },
+            Throwable::printStackTrace);
     }
     
     private void showAddProductDialog() {
-        ProductFormDialog dialog = new ProductFormDialog(primaryStage, null, categoryDAO, supplierDAO);
-        dialog.showAndWait().ifPresent(product -> {
-            try {
-                productDAO.save(product);
-                loadProducts();
-                AlertUtil.showInfo("Success", "Product added successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to add product: " + e.getMessage());
-            }
-        });
+        ProductFormDialog dialog = new ProductFormDialog(primaryStage, null);
+        dialog.showAndWait().ifPresent(product ->
+            FxAsync.run(() -> productDAO.save(product),
+                saved -> {
+                    loadProducts();
+                    AlertUtil.showInfo("Success", "Product added successfully!");
+                },
+                FxAsync.showError("Failed to add product")));
     }
     
     private void editSelectedProduct() {
-        Product selected = productTable.getSelectionModel().getSelectedItem();
+        Product selected = getSelectedProduct();
         if (selected == null) {
             AlertUtil.showWarning("No Selection", "Please select a product to edit.");
             return;
         }
         
-        ProductFormDialog dialog = new ProductFormDialog(primaryStage, selected, categoryDAO, supplierDAO);
-        dialog.showAndWait().ifPresent(product -> {
-            try {
-                productDAO.update(product);
+        Product base = new Product(selected);
+        ProductFormDialog dialog = new ProductFormDialog(primaryStage, selected);
+        dialog.showAndWait().ifPresent(product -> saveProductEdit(base, product));
+    }
+    
+    /**
+     * Saves an edit that started from {@code base}. Changes another user saved meanwhile are
+     * merged in automatically unless they touch the same fields, in which case the user decides.
+     */
+    private void saveProductEdit(Product base, Product edited) {
+        FxAsync.run(() -> productUpdateService.update(base, edited),
+            conflict -> {
+                if (conflict.isEmpty()) {
+                    loadProducts();
+                    AlertUtil.showInfo("Success", "Product updated successfully!");
+                    return;
+                }
+                
+                ProductConflictDialog dialog = new ProductConflictDialog(primaryStage, conflict.get());
+                if (dialog.showAndWait().orElse(false)) {
+                    saveProductEdit(conflict.get().theirs(), conflict.get().keepMine());
+                } else {
+                    loadProducts();
+                }
+            },
+            error -> {
                 loadProducts();
-                AlertUtil.showInfo("Success", "Product updated successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to update product: " + e.getMessage());
+                FxAsync.showError("Failed to update product").accept(error);
+            });
+    }
+    
+    private void importProducts() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Products");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(primaryStage);
+        if (file == null) {
+            return;
+        }
+        
+        ProductCsvImporter importer = new ProductCsvImporter(productDAO);
+        Task<ProductCsvImporter.Result> task = new Task<>() {
+            @Override
+            protected ProductCsvImporter.Result call() throws Exception {
+                return importer.run(file.toPath(), (bytesRead, totalBytes, imported, rejected) -> {
+                    updateProgress(bytesRead, totalBytes);
+                    updateMessage(imported + " imported, " + rejected + " rejected");
+                });
             }
+        };
+        task.setOnSucceeded(e -> {
+            loadProducts();
+            ProductCsvImporter.Result result = task.getValue();
+            String summary = result.inserted() + " product(s) added, " + result.updated() + " updated, " +
+                             result.rejected() + " rejected.";
+            if (result.rejectedReport() != null) {
+                summary += "\n\nRejected rows and reasons were written to:\n" + result.rejectedReport();
+            }
+            AlertUtil.showInfo("Import Finished", summary);
+        });
+        task.setOnFailed(e -> {
+            loadProducts();
+            AlertUtil.showError("Import Failed", "Import stopped: " + task.getException().getMessage() +
+                                "\nRows imported before the error were kept.");
+        });
+        task.setOnCancelled(e -> {
+            loadProducts();
+            AlertUtil.showInfo("Import Cancelled", "Rows imported before cancelling were kept.");
         });
+        
+        new TaskProgressDialog(primaryStage, "Importing " + file.getName(), task).show();
+        DbExecutor.execute(task);
     }
     
     private void deleteSelectedProduct() {
-        Product selected = productTable.getSelectionModel().getSelectedItem();
+        Product selected = getSelectedProduct();
         if (selected == null) {
             AlertUtil.showWarning("No Selection", "Please select a product to delete.");
             return;
@@ -275,57 +502,81 @@ public class MainController {
         
         if (AlertUtil.showConfirmation("Confirm Delete", 
             "Are you sure you want to delete " + selected.getName() + "?")) {
-            try {
-                productDAO.delete(selected.getProductId());
-                loadProducts();
-                AlertUtil.showInfo("Success", "Product deleted successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to delete product: " + e.getMessage());
-            }
+            FxAsync.run(() -> {
+                    productDAO.delete(selected.getProductId());
+                    return selected;
+                },
+                deleted -> {
+                    loadProducts();
+                    AlertUtil.showInfo("Success", "Product deleted successfully!");
+                },
+                FxAsync.showError("Failed to delete product"));
         }
     }
     
     private void showStockTransactionDialog() {
-        Product selected = productTable.getSelectionModel().getSelectedItem();
+        Product selected = getSelectedProduct();
         if (selected == null) {
             AlertUtil.showWarning("No Selection", "Please select a product for stock transaction.");
             return;
         }
         
         StockTransactionDialog dialog = new StockTransactionDialog(primaryStage, selected);
-        dialog.showAndWait().ifPresent(transaction -> {
-            try {
-                transactionDAO.save(transaction);
-                loadProducts();
-                AlertUtil.showInfo("Success", "Stock transaction completed!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to process transaction: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(transaction ->
+            FxAsync.run(() -> transactionDAO.save(transaction),
+                saved -> {
+                    loadProducts();
+                    AlertUtil.showInfo("Success", "Stock transaction completed!");
+                },
+                FxAsync.showError("Failed to process transaction")));
+    }
+    
+    private void showStockReceivingDialog() {
+        StockReceivingDialog dialog = new StockReceivingDialog(primaryStage, productDAO);
+        dialog.showAndWait().ifPresent(transactions ->
+            FxAsync.run(() -> transactionDAO.saveAll(transactions),
+                ids -> {
+                    loadProducts();
+                    AlertUtil.showInfo("Success", transactions.size() + " stock line(s) posted!");
+                },
+                FxAsync.showError("Failed to post stock lines")));
     }
     
+    // Each view switch is recorded as a JFR "show" event; the data loads it starts are separate "load" events.
     private void showProductView() {
-        mainLayout.setCenter(createProductView());
-        loadProducts();
+        ViewLoadEvent.show("MainController.showProductView", () -> {
+            mainLayout.setCenter(createProductView());
+            loadProducts();
+        });
     }
     
     private void showCategoryView() {
         CategoryController controller = new CategoryController(mainLayout, categoryDAO);
-        controller.show();
+        ViewLoadEvent.show("CategoryController.show", controller::show);
     }
     
     private void showSupplierView() {
         SupplierController controller = new SupplierController(mainLayout, supplierDAO);
-        controller.show();
+        ViewLoadEvent.show("SupplierController.show", controller::show);
     }
     
     private void showTransactionView() {
-        TransactionController controller = new TransactionController(mainLayout, transactionDAO);
-        controller.show();
+        TransactionController controller = new TransactionController(mainLayout, transactionDAO, exportService);
+        ViewLoadEvent.show("TransactionController.show", controller::show);
     }
     
     private void showLowStockView() {
         LowStockController controller = new LowStockController(mainLayout, productDAO);
-        controller.show();
+        ViewLoadEvent.show("LowStockController.show", controller::show);
+    }
+    
+    private void showMovementReportView() {
+        MovementReportController controller = new MovementReportController(mainLayout, movementDAO);
+        ViewLoadEvent.show("MovementReportController.show", controller::show);
+    }
+    
+    private void showDiagnosticsView() {
+        DiagnosticsController controller = new DiagnosticsController(mainLayout);
+        ViewLoadEvent.show("DiagnosticsController.show", controller::show);
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.dao.MovementGranularity;
+import com.example.smartstock.dao.StockMovementDAO;
+import com.example.smartstock.models.StockMovement;
+import com.example.smartstock.service.StockMovementBackfill;
+import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.FxAsync;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Units in/out per day, week or month, read from the daily movement rollup.
+ */
+public class MovementReportController {
+    private static final int ROW_LIMIT = 5000;
+    
+    private BorderPane mainLayout;
+    private StockMovementDAO movementDAO;
+    private TableView<StockMovement> movementTable;
+    private ObservableList<StockMovement> movementList = FXCollections.observableArrayList();
+    private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    
+    private TextField skuField;
+    private DatePicker fromPicker;
+    private DatePicker toPicker;
+    private ComboBox<MovementGranularity> granularityCombo;
+    private Label statusLabel;
+    
+    public MovementReportController(BorderPane mainLayout, StockMovementDAO movementDAO) {
+        this.mainLayout = mainLayout;
+        this.movementDAO = movementDAO;
+    }
+    
+    public void show() {
+        VBox view = new VBox(15);
+        view.setPadding(new Insets(20));
+        
+        Label titleLabel = new Label("Stock Movements");
+        titleLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
+        
+        movementTable = new TableView<>();
+        movementTable.setItems(movementList);
+        movementTable.setPlaceholder(new Label("No movements in this period"));
+        
+        TableColumn<StockMovement, LocalDate> periodCol = new TableColumn<>("Period");
+        periodCol.setCellValueFactory(new PropertyValueFactory<>("periodStart"));
+        periodCol.setPrefWidth(120);
+        periodCol.setCellFactory(col -> new TableCell<StockMovement, LocalDate>() {
+            @Override
+            protected void updateItem(LocalDate item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : dateFormatter.format(item));
+            }
+        });
+        
+        TableColumn<StockMovement, String> productCol = new TableColumn<>("Product");
+        productCol.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        productCol.setPrefWidth(250);
+        
+        TableColumn<StockMovement, Integer> inCol = new TableColumn<>("Units In");
+        inCol.setCellValueFactory(new PropertyValueFactory<>("unitsIn"));
+        inCol.setPrefWidth(100);
+        
+        TableColumn<StockMovement, Integer> outCol = new TableColumn<>("Units Out");
+        outCol.setCellValueFactory(new PropertyValueFactory<>("unitsOut"));
+        outCol.setPrefWidth(100);
+        
+        TableColumn<StockMovement, Integer> netCol = new TableColumn<>("Net");
+        netCol.setCellValueFactory(new PropertyValueFactory<>("netChange"));
+        netCol.setPrefWidth(100);
+        
+        TableColumn<StockMovement, Integer> countCol = new TableColumn<>("Transactions");
+        countCol.setCellValueFactory(new PropertyValueFactory<>("transactionCount"));
+        countCol.setPrefWidth(110);
+        
+        movementTable.getColumns().addAll(periodCol, productCol, inCol, outCol, netCol, countCol);
+        
+        statusLabel = new Label();
+        
+        view.getChildren().addAll(titleLabel, createFilterBar(), movementTable, statusLabel);
+        VBox.setVgrow(movementTable, Priority.ALWAYS);
+        
+        mainLayout.setCenter(view);
+        loadMovements();
+    }
+    
+    private HBox createFilterBar() {
+        HBox filterBar = new HBox(10);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        
+        skuField = new TextField();
+        skuField.setPromptText("Product SKU (blank = all)");
+        skuField.setPrefWidth(180);
+        skuField.setOnAction(e -> loadMovements());
+        
+        fromPicker = new DatePicker(LocalDate.now().minusMonths(3));
+        fromPicker.setPrefWidth(130);
+        
+        toPicker = new DatePicker(LocalDate.now());
+        toPicker.setPrefWidth(130);
+        
+        granularityCombo = new ComboBox<>();
+        granularityCombo.getItems().addAll(MovementGranularity.values());
+        granularityCombo.setValue(MovementGranularity.WEEK);
+        
+        Button runBtn = new Button("Run Report");
+        runBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
+        runBtn.setOnAction(e -> loadMovements());
+        
+        Button rebuildBtn = new Button("Rebuild from History");
+        rebuildBtn.setOnAction(e -> rebuildRollup(rebuildBtn));
+        
+        filterBar.getChildren().addAll(new Label("From:"), fromPicker, new Label("To:"), toPicker,
+                                       skuField, granularityCombo, runBtn, rebuildBtn);
+        return filterBar;
+    }
+    
+    private void loadMovements() {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        if (from == null || to == null || to.isBefore(from)) {
+            AlertUtil.showWarning("Invalid Period", "Please choose a start date on or before the end date.");
+            return;
+        }
+        
+        String sku = skuField.getText() == null || skuField.getText().trim().isEmpty()
+            ? null : skuField.getText().trim();
+        MovementGranularity granularity = granularityCombo.getValue();
+        FxAsync.load(movementTable,
+            () -> movementDAO.findMovements(sku, from, to.plusDays(1), granularity, ROW_LIMIT),
+            movements -> showMovements(movements, sku),
+            FxAsync.showError("Failed to load stock movements"));
+    }
+    
+    private void showMovements(List<StockMovement> movements, String sku) {
+        if (sku == null) {
+            movements.forEach(movement -> movement.setProductName("All products"));
+        }
+        movementList.setAll(movements);
+        
+        long totalIn = movements.stream().mapToLong(StockMovement::getUnitsIn).sum();
+        long totalOut = movements.stream().mapToLong(StockMovement::getUnitsOut).sum();
+        statusLabel.setText(movements.size() + " period(s)" +
+                            (movements.size() == ROW_LIMIT ? " (limit reached)" : "") +
+                            ", " + totalIn + " in, " + totalOut + " out");
+    }
+    
+    private void rebuildRollup(Button rebuildBtn) {
+        if (!AlertUtil.showConfirmation("Rebuild Movements",
+            "Recompute the movement totals from the full transaction history? " +
+            "This can take a while on a large ledger.")) {
+            return;
+        }
+        
+        rebuildBtn.setDisable(true);
+        StockMovementBackfill backfill = new StockMovementBackfill(movementDAO);
+        FxAsync.run(
+            () -> backfill.run((month, done, total) -> Platform.runLater(() ->
+                statusLabel.setText("Rebuilding " + month.getYear() + "-" + month.getMonthValue() +
+                                    " (" + done + "/" + total + ")"))),
+            written -> {
+                rebuildBtn.setDisable(false);
+                AlertUtil.showInfo("Success", "Movement totals rebuilt (" + written + " product-days).");
+                loadMovements();
+            },
+            error -> {
+                rebuildBtn.setDisable(false);
+                statusLabel.setText("");
+                FxAsync.showError("Failed to rebuild movement totals").accept(error);
+            });
+    }
+}
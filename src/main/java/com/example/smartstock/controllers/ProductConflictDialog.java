@@ -0,0 +1,88 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.cache.ReferenceDataCache;
+import com.example.smartstock.models.Category;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.Product.Field;
+import com.example.smartstock.models.Supplier;
+import com.example.smartstock.service.ProductUpdateService.Conflict;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import java.util.Optional;
+
+/**
+ * Shown when another user saved the same fields of a product while it was being edited. The
+ * result is {@code true} to save this user's values anyway, {@code false} to keep the stored ones.
+ */
+public class ProductConflictDialog extends Dialog<Boolean> {
+    
+    public ProductConflictDialog(Stage owner, Conflict conflict) {
+        setTitle("Edit Conflict");
+        setHeaderText("\"" + conflict.theirs().getName() + "\" was changed by another user while you were editing it.");
+        initOwner(owner);
+        initModality(Modality.APPLICATION_MODAL);
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(15);
+        grid.setVgap(8);
+        
+        Label fieldHeader = new Label("Field");
+        Label mineHeader = new Label("Your value");
+        Label theirsHeader = new Label("Their value");
+        fieldHeader.setStyle("-fx-font-weight: bold;");
+        mineHeader.setStyle("-fx-font-weight: bold;");
+        theirsHeader.setStyle("-fx-font-weight: bold;");
+        grid.addRow(0, fieldHeader, mineHeader, theirsHeader);
+        
+        int row = 1;
+        for (Field field : conflict.fields()) {
+            grid.addRow(row++, new Label(displayName(field)),
+                        new Label(displayValue(field, conflict.mine())),
+                        new Label(displayValue(field, conflict.theirs())));
+        }
+        
+        Label note = new Label("Their changes to other fields are kept either way.");
+        VBox content = new VBox(15, grid, note);
+        content.setPadding(new Insets(10, 20, 10, 20));
+        getDialogPane().setContent(content);
+        
+        ButtonType saveMine = new ButtonType("Save Mine", ButtonBar.ButtonData.OK_DONE);
+        ButtonType keepTheirs = new ButtonType("Keep Theirs", ButtonBar.ButtonData.CANCEL_CLOSE);
+        getDialogPane().getButtonTypes().addAll(saveMine, keepTheirs);
+        setResultConverter(buttonType -> buttonType == saveMine);
+    }
+    
+    private static String displayName(Field field) {
+        return switch (field) {
+            case NAME -> "Name";
+            case DESCRIPTION -> "Description";
+            case SKU -> "SKU";
+            case CATEGORY -> "Category";
+            case SUPPLIER -> "Supplier";
+            case UNIT_PRICE -> "Price";
+            case MINIMUM_STOCK -> "Minimum Stock";
+        };
+    }
+    
+    private static String displayValue(Field field, Product product) {
+        Object value = field.get(product);
+        if (value == null || "".equals(value)) {
+            return "(none)";
+        }
+        
+        Optional<ReferenceDataCache.Snapshot> referenceData = ReferenceDataCache.getInstance().current();
+        if (field == Field.CATEGORY && referenceData.isPresent()) {
+            Category category = referenceData.get().category((Integer) value);
+            return category != null ? category.getName() : value.toString();
+        }
+        if (field == Field.SUPPLIER && referenceData.isPresent()) {
+            Supplier supplier = referenceData.get().supplier((Integer) value);
+            return supplier != null ? supplier.getName() : value.toString();
+        }
+        return value.toString();
+    }
+}
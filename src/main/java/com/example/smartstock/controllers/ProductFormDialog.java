@@ -1,7 +1,8 @@
 package com.example.smartstock.controllers;
 
-import com.example.smartstock.dao.*;
+import com.example.smartstock.cache.ReferenceDataCache;
 import com.example.smartstock.models.*;
+import com.example.smartstock.util.FxAsync;
 import com.example.smartstock.util.ValidationUtil;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -9,8 +10,7 @@ import javafx.scene.layout.GridPane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import java.math.BigDecimal;
-import java.sql.SQLException;
-import java.util.List;
+import java.util.Optional;
 
 public class ProductFormDialog extends Dialog<Product> {
     private TextField nameField;
@@ -22,9 +22,11 @@ public class ProductFormDialog extends Dialog<Product> {
     private TextField stockField;
     private TextField minStockField;
     
+    private ProgressIndicator loadingIndicator;
+    
     private Product product;
     
-    public ProductFormDialog(Stage owner, Product product, CategoryDAO categoryDAO, SupplierDAO supplierDAO) {
+    public ProductFormDialog(Stage owner, Product product) {
         this.product = product;
         
         setTitle(product == null ? "Add Product" : "Edit Product");
@@ -46,17 +48,6 @@ public class ProductFormDialog extends Dialog<Product> {
         stockField = new TextField();
         minStockField = new TextField();
         
-        // Load categories and suppliers
-        try {
-            List<Category> categories = categoryDAO.findAll();
-            categoryCombo.getItems().addAll(categories);
-            
-            List<Supplier> suppliers = supplierDAO.findAll();
-            supplierCombo.getItems().addAll(suppliers);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
         if (product != null) {
             nameField.setText(product.getName());
             descField.setText(product.getDescription());
@@ -64,20 +55,41 @@ public class ProductFormDialog extends Dialog<Product> {
             priceField.setText(product.getUnitPrice().toString());
             stockField.setText(product.getCurrentStock().toString());
             minStockField.setText(product.getMinimumStock().toString());
-            
-            if (product.getCategoryId() != null) {
-                categoryCombo.getItems().stream()
-                    .filter(c -> c.getCategoryId().equals(product.getCategoryId()))
-                    .findFirst()
-                    .ifPresent(categoryCombo::setValue);
-            }
-            
-            if (product.getSupplierId() != null) {
-                supplierCombo.getItems().stream()
-                    .filter(s -> s.getSupplierId().equals(product.getSupplierId()))
-                    .findFirst()
-                    .ifPresent(supplierCombo::setValue);
-            }
+            // Saving an edit never writes stock, so postings made meanwhile are not undone.
+            stockField.setEditable(false);
+            stockField.setTooltip(new Tooltip("Use a stock transaction to change the stock level"));
+        }
+        
+        // Pick lists come from the shared reference-data cache; only a cold or just-invalidated
+        // cache makes the dialog wait for a background load.
+        loadingIndicator = new ProgressIndicator();
+        loadingIndicator.setPrefSize(24, 24);
+        loadingIndicator.setVisible(false);
+        
+        ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+        Optional<ReferenceDataCache.Snapshot> snapshot = referenceData.current();
+        if (snapshot.isPresent()) {
+            applyReferenceData(snapshot.get());
+        } else {
+            // Until the lists arrive (or if they never do) the current values are kept, so OK
+            // cannot clear the product's category and supplier.
+            keepCurrentReferences();
+            loadingIndicator.setVisible(true);
+            categoryCombo.setDisable(true);
+            supplierCombo.setDisable(true);
+            FxAsync.run(referenceData::get,
+                loaded -> {
+                    applyReferenceData(loaded);
+                    loadingIndicator.setVisible(false);
+                    categoryCombo.setDisable(false);
+                    supplierCombo.setDisable(false);
+                },
+                error -> {
+                    loadingIndicator.setVisible(false);
+                    categoryCombo.setDisable(false);
+                    supplierCombo.setDisable(false);
+                    FxAsync.showError("Failed to load categories and suppliers").accept(error);
+                });
         }
         
         grid.add(new Label("Name:*"), 0, 0);
@@ -91,6 +103,7 @@ public class ProductFormDialog extends Dialog<Product> {
         
         grid.add(new Label("Category:"), 0, 3);
         grid.add(categoryCombo, 1, 3);
+        grid.add(loadingIndicator, 2, 3);
         
         grid.add(new Label("Supplier:"), 0, 4);
         grid.add(supplierCombo, 1, 4);
@@ -133,6 +146,39 @@ public class ProductFormDialog extends Dialog<Product> {
         });
     }
     
+    private void applyReferenceData(ReferenceDataCache.Snapshot referenceData) {
+        categoryCombo.getItems().setAll(referenceData.categories());
+        supplierCombo.getItems().setAll(referenceData.suppliers());
+        if (product != null) {
+            categoryCombo.setValue(referenceData.category(product.getCategoryId()));
+            supplierCombo.setValue(referenceData.supplier(product.getSupplierId()));
+        }
+    }
+    
+    /**
+     * Without the pick lists, the combos offer only the product's current category and supplier,
+     * so saving an edit before or without them does not clear either.
+     */
+    private void keepCurrentReferences() {
+        if (product == null) {
+            return;
+        }
+        if (product.getCategoryId() != null) {
+            Category category = new Category();
+            category.setCategoryId(product.getCategoryId());
+            category.setName(product.getCategoryName());
+            categoryCombo.getItems().setAll(category);
+            categoryCombo.setValue(category);
+        }
+        if (product.getSupplierId() != null) {
+            Supplier supplier = new Supplier();
+            supplier.setSupplierId(product.getSupplierId());
+            supplier.setName(product.getSupplierName());
+            supplierCombo.getItems().setAll(supplier);
+            supplierCombo.setValue(supplier);
+        }
+    }
+    
     private boolean validateInput() {
         if (ValidationUtil.isNullOrEmpty(nameField.getText())) {
             showError("Name is required");
@@ -0,0 +1,132 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.dao.StockSnapshotDAO;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.util.FxAsync;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Product table column with each product's stock at the end of a chosen day. Balances are only
+ * fetched for rows that are actually rendered: the cells of one layout pass are collected and
+ * looked up in a single background query. Hidden until a date is set. Rows whose lookup failed
+ * show "Error" until the date is set again.
+ */
+public class StockAsOfColumn extends TableColumn<Product, Product> {
+    private static final DateTimeFormatter HEADER_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    
+    private final StockSnapshotDAO snapshotDAO;
+    private final Map<Integer, Integer> balances = new HashMap<>();
+    // Products whose lookup has finished; those without a balance did not exist yet on the date.
+    private final Set<Integer> loaded = new HashSet<>();
+    private final Set<Integer> requested = new HashSet<>();
+    private final Set<Integer> failed = new HashSet<>();
+    private final List<Integer> batch = new ArrayList<>();
+    
+    private LocalDate date;
+    private int generation;
+    private boolean failureReported;
+    
+    public StockAsOfColumn(StockSnapshotDAO snapshotDAO) {
+        this.snapshotDAO = snapshotDAO;
+        
+        setVisible(false);
+        setSortable(false);
+        setPrefWidth(120);
+        setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+        setCellFactory(col -> new TableCell<Product, Product>() {
+            @Override
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                if (empty || product == null || product.getProductId() == null || date == null) {
+                    setText(null);
+                } else {
+                    setText(balanceText(product.getProductId()));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Shows stock as of the end of {@code date}, or hides the column for {@code null}.
+     */
+    public void setDate(LocalDate date) {
+        this.date = date;
+        generation++;
+        balances.clear();
+        loaded.clear();
+        requested.clear();
+        failed.clear();
+        batch.clear();
+        failureReported = false;
+        
+        setText(date == null ? null : "Stock on " + HEADER_FORMAT.format(date));
+        setVisible(date != null);
+        if (getTableView() != null) {
+            getTableView().refresh();
+        }
+    }
+    
+    private String balanceText(Integer productId) {
+        Integer balance = balances.get(productId);
+        if (balance != null) {
+            return balance.toString();
+        }
+        if (loaded.contains(productId)) {
+            return "-";
+        }
+        if (failed.contains(productId)) {
+            return "Error";
+        }
+        if (requested.add(productId)) {
+            if (batch.isEmpty()) {
+                Platform.runLater(this::loadBatch);
+            }
+            batch.add(productId);
+        }
+        return "...";
+    }
+    
+    private void loadBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        List<Integer> productIds = new ArrayList<>(batch);
+        batch.clear();
+        int requestGeneration = generation;
+        LocalDateTime asOf = date.plusDays(1).atStartOfDay();
+        FxAsync.run(() -> snapshotDAO.findStockAsOf(productIds, asOf),
+            result -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                balances.putAll(result);
+                loaded.addAll(productIds);
+                getTableView().refresh();
+            },
+            error -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                failed.addAll(productIds);
+                getTableView().refresh();
+                // Batches still in flight may fail the same way; one alert is enough.
+                if (!failureReported) {
+                    failureReported = true;
+                    FxAsync.showError("Failed to load stock levels").accept(error);
+                }
+            });
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.smartstock.controllers;
+
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.StockTransaction;
+import com.example.smartstock.models.StockTransaction.TransactionType;
+import com.example.smartstock.util.FxAsync;
+import com.example.smartstock.util.ValidationUtil;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects many stock lines (e.g. a whole delivery) that are posted together with
+ * {@code StockTransactionDAO.saveAll} in a single commit.
+ */
+public class StockReceivingDialog extends Dialog<List<StockTransaction>> {
+    private final ProductDAO productDAO;
+    private final ObservableList<StockTransaction> lines = FXCollections.observableArrayList();
+    private final Map<Integer, Product> productsById = new HashMap<>();
+    
+    private ComboBox<TransactionType> typeCombo;
+    private TextField skuField;
+    private TextField quantityField;
+    private TextField referenceField;
+    private TextArea notesArea;
+    private TableView<StockTransaction> linesTable;
+    private HBox entryBar;
+    
+    public StockReceivingDialog(Stage owner, ProductDAO productDAO) {
+        this.productDAO = productDAO;
+        
+        setTitle("Multi-line Stock Transaction");
+        initOwner(owner);
+        initModality(Modality.APPLICATION_MODAL);
+        
+        GridPane header = new GridPane();
+        header.setHgap(10);
+        header.setVgap(10);
+        
+        typeCombo = new ComboBox<>();
+        typeCombo.getItems().addAll(TransactionType.values());
+        typeCombo.setValue(TransactionType.IN);
+        
+        referenceField = new TextField();
+        notesArea = new TextArea();
+        notesArea.setPrefRowCount(2);
+        
+        header.add(new Label("Type:*"), 0, 0);
+        header.add(typeCombo, 1, 0);
+        header.add(new Label("Reference:"), 0, 1);
+        header.add(referenceField, 1, 1);
+        header.add(new Label("Notes:"), 0, 2);
+        header.add(notesArea, 1, 2);
+        
+        skuField = new TextField();
+        skuField.setPromptText("SKU");
+        quantityField = new TextField();
+        quantityField.setPromptText("Quantity");
+        quantityField.setPrefWidth(100);
+        quantityField.setOnAction(e -> addLine());
+        skuField.setOnAction(e -> quantityField.requestFocus());
+        
+        Button addLineBtn = new Button("Add Line");
+        addLineBtn.setOnAction(e -> addLine());
+        
+        Button removeLineBtn = new Button("Remove Line");
+        removeLineBtn.setOnAction(e -> {
+            StockTransaction selected = linesTable.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                lines.remove(selected);
+            }
+        });
+        
+        entryBar = new HBox(10, skuField, quantityField, addLineBtn, removeLineBtn);
+        
+        linesTable = new TableView<>(lines);
+        linesTable.setPrefHeight(300);
+        linesTable.setPlaceholder(new Label("Scan or type a SKU and quantity to add lines"));
+        
+        TableColumn<StockTransaction, Integer> idCol = new TableColumn<>("Product ID");
+        idCol.setCellValueFactory(new PropertyValueFactory<>("productId"));
+        idCol.setPrefWidth(90);
+        
+        TableColumn<StockTransaction, String> productCol = new TableColumn<>("Product");
+        productCol.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        productCol.setPrefWidth(260);
+        
+        TableColumn<StockTransaction, Integer> quantityCol = new TableColumn<>("Quantity");
+        quantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        quantityCol.setPrefWidth(100);
+        
+        linesTable.getColumns().addAll(idCol, productCol, quantityCol);
+        
+        VBox content = new VBox(10, header, new Separator(), entryBar, linesTable);
+        content.setPadding(new Insets(20));
+        
+        getDialogPane().setContent(content);
+        getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        
+        Button okButton = (Button) getDialogPane().lookupButton(ButtonType.OK);
+        okButton.setText("Post All");
+        okButton.addEventFilter(javafx.event.ActionEvent.ACTION, event -> {
+            if (!validateInput()) {
+                event.consume();
+            }
+        });
+        
+        setResultConverter(buttonType -> {
+            if (buttonType == ButtonType.OK) {
+                String reference = referenceField.getText().trim();
+                String notes = notesArea.getText().trim();
+                for (StockTransaction line : lines) {
+                    line.setTransactionType(typeCombo.getValue());
+                    line.setReference(reference);
+                    line.setNotes(notes);
+                }
+                return List.copyOf(lines);
+            }
+            return null;
+        });
+    }
+    
+    private void addLine() {
+        String sku = skuField.getText().trim();
+        if (ValidationUtil.isNullOrEmpty(sku)) {
+            showError("SKU is required");
+            return;
+        }
+        if (!ValidationUtil.isValidNumber(quantityField.getText()) ||
+            Integer.parseInt(quantityField.getText().trim()) <= 0) {
+            showError("Quantity must be a number greater than 0");
+            return;
+        }
+        int quantity = Integer.parseInt(quantityField.getText().trim());
+        
+        // The lookup runs in the background; the entry bar stays disabled so scans queue up in the field.
+        entryBar.setDisable(true);
+        FxAsync.run(() -> productDAO.findBySku(sku),
+            product -> {
+                entryBar.setDisable(false);
+                if (product.isEmpty()) {
+                    showError("No product with SKU " + sku);
+                    return;
+                }
+                addLine(product.get(), quantity);
+            },
+            error -> {
+                entryBar.setDisable(false);
+                showError("Failed to look up SKU: " + error.getMessage());
+            });
+    }
+    
+    private void addLine(Product found, int quantity) {
+        productsById.put(found.getProductId(), found);
+        
+        // Repeated scans of the same SKU accumulate into one line.
+        Optional<StockTransaction> existing = lines.stream()
+            .filter(line -> line.getProductId().equals(found.getProductId()))
+            .findFirst();
+        if (existing.isPresent()) {
+            StockTransaction line = existing.get();
+            line.setQuantity(line.getQuantity() + quantity);
+            linesTable.refresh();
+        } else {
+            StockTransaction line = new StockTransaction();
+            line.setProductId(found.getProductId());
+            line.setProductName(found.getName());
+            line.setQuantity(quantity);
+            lines.add(line);
+        }
+        
+        skuField.clear();
+        quantityField.clear();
+        skuField.requestFocus();
+    }
+    
+    private boolean validateInput() {
+        if (lines.isEmpty()) {
+            showError("Add at least one line");
+            return false;
+        }
+        
+        if (typeCombo.getValue() == TransactionType.OUT) {
+            for (StockTransaction line : lines) {
+                Product product = productsById.get(line.getProductId());
+                if (line.getQuantity() > product.getCurrentStock()) {
+                    showError("Insufficient stock for " + product.getName() +
+                              ". Available: " + product.getCurrentStock());
+                    return false;
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    private void showError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Validation Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.smartstock.controllers;
 
+import com.example.smartstock.dao.OptimisticLockException;
 import com.example.smartstock.dao.SupplierDAO;
 import com.example.smartstock.models.Supplier;
 import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.util.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -10,8 +12,6 @@ import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
-import java.sql.SQLException;
-import java.util.List;
 
 public class SupplierController {
     private BorderPane mainLayout;
@@ -80,26 +80,20 @@ public class SupplierController {
     }
     
     private void loadSuppliers() {
-        try {
-            List<Supplier> suppliers = supplierDAO.findAll();
-            supplierList.clear();
-            supplierList.addAll(suppliers);
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to load suppliers: " + e.getMessage());
-        }
+        FxAsync.load(supplierTable, supplierDAO::findAll,
+            suppliers -> supplierList.setAll(suppliers),
+            FxAsync.showError("Failed to load suppliers"));
     }
     
     private void showAddDialog() {
         Dialog<Supplier> dialog = createFormDialog(null);
-        dialog.showAndWait().ifPresent(supplier -> {
-            try {
-                supplierDAO.save(supplier);
-                loadSuppliers();
-                AlertUtil.showInfo("Success", "Supplier added successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to add supplier: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(supplier ->
+            FxAsync.run(() -> supplierDAO.save(supplier),
+                saved -> {
+                    loadSuppliers();
+                    AlertUtil.showInfo("Success", "Supplier added successfully!");
+                },
+                FxAsync.showError("Failed to add supplier")));
     }
     
     private void editSelected() {
@@ -110,15 +104,24 @@ public class SupplierController {
         }
         
         Dialog<Supplier> dialog = createFormDialog(selected);
-        dialog.showAndWait().ifPresent(supplier -> {
-            try {
-                supplierDAO.update(supplier);
-                loadSuppliers();
-                AlertUtil.showInfo("Success", "Supplier updated successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to update supplier: " + e.getMessage());
-            }
-        });
+        dialog.showAndWait().ifPresent(supplier ->
+            FxAsync.run(() -> {
+                    supplierDAO.update(supplier);
+                    return supplier;
+                },
+                updated -> {
+                    loadSuppliers();
+                    AlertUtil.showInfo("Success", "Supplier updated successfully!");
+                },
+                error -> {
+                    loadSuppliers();
+                    if (error instanceof OptimisticLockException) {
+                        AlertUtil.showWarning("Edit Conflict", "This supplier was changed by another user " +
+                            "while you were editing it. The list has been reloaded; please make your changes again.");
+                    } else {
+                        FxAsync.showError("Failed to update supplier").accept(error);
+                    }
+                }));
     }
     
     private void deleteSelected() {
@@ -130,13 +133,15 @@ public class SupplierController {
         
         if (AlertUtil.showConfirmation("Confirm Delete", 
             "Are you sure you want to delete " + selected.getName() + "?")) {
-            try {
-                supplierDAO.delete(selected.getSupplierId());
-                loadSuppliers();
-                AlertUtil.showInfo("Success", "Supplier deleted successfully!");
-            } catch (SQLException e) {
-                AlertUtil.showError("Database Error", "Failed to delete supplier: " + e.getMessage());
-            }
+            FxAsync.run(() -> {
+                    supplierDAO.delete(selected.getSupplierId());
+                    return selected;
+                },
+                deleted -> {
+                    loadSuppliers();
+                    AlertUtil.showInfo("Success", "Supplier deleted successfully!");
+                },
+                FxAsync.showError("Failed to delete supplier"));
         }
     }
     
@@ -0,0 +1,45 @@
+package com.example.smartstock.controllers;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * Modal progress window for a long-running background {@link Task}, such as an import or
+ * export. Shows the task's progress and message, cancels it when the user presses Cancel, and
+ * closes itself once the task has ended.
+ */
+public class TaskProgressDialog extends Dialog<Void> {
+    
+    public TaskProgressDialog(Stage owner, String title, Task<?> task) {
+        setTitle(title);
+        setHeaderText(title);
+        initOwner(owner);
+        initModality(Modality.APPLICATION_MODAL);
+        
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(360);
+        progressBar.progressProperty().bind(task.progressProperty());
+        
+        Label messageLabel = new Label();
+        messageLabel.textProperty().bind(task.messageProperty());
+        
+        VBox content = new VBox(10, progressBar, messageLabel);
+        content.setPadding(new Insets(10, 20, 10, 20));
+        getDialogPane().setContent(content);
+        getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        
+        // Closing the window by any means cancels a task that is still running.
+        setOnHidden(e -> task.cancel());
+        task.stateProperty().addListener((obs, oldState, newState) -> {
+            if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED ||
+                newState == Worker.State.CANCELLED) {
+                close();
+            }
+        });
+    }
+}
@@ -1,29 +1,52 @@
 package com.example.smartstock.controllers;
 
 import com.example.smartstock.dao.StockTransactionDAO;
+import com.example.smartstock.dao.TransactionFilter;
 import com.example.smartstock.models.StockTransaction;
-import com.example.smartstock.util.AlertUtil;
+import com.example.smartstock.service.ExportService;
+import com.example.smartstock.util.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
-import java.sql.SQLException;
+import javafx.stage.Stage;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class TransactionController {
+    private static final int PAGE_SIZE = 100;
+    // Start fetching the next page once a row this close to the end is rendered.
+    private static final int LOAD_AHEAD_ROWS = 20;
+    
     private BorderPane mainLayout;
     private StockTransactionDAO transactionDAO;
+    private ExportService exportService;
     private TableView<StockTransaction> transactionTable;
     private ObservableList<StockTransaction> transactionList = FXCollections.observableArrayList();
     private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     
-    public TransactionController(BorderPane mainLayout, StockTransactionDAO transactionDAO) {
+    private DatePicker fromPicker;
+    private DatePicker toPicker;
+    private TextField skuField;
+    private ComboBox<StockTransaction.TransactionType> typeCombo;
+    private TextField referenceField;
+    private Label statusLabel;
+    
+    private TransactionFilter filter = TransactionFilter.all();
+    private int generation;
+    private boolean loading;
+    private boolean exhausted;
+    
+    public TransactionController(BorderPane mainLayout, StockTransactionDAO transactionDAO,
+                                 ExportService exportService) {
         this.mainLayout = mainLayout;
         this.transactionDAO = transactionDAO;
+        this.exportService = exportService;
     }
     
     public void show() {
@@ -35,6 +58,17 @@ public class TransactionController {
         
         transactionTable = new TableView<>();
         transactionTable.setItems(transactionList);
+        // Rows are only ever appended in date order, so column sorting would be misleading.
+        transactionTable.setSortPolicy(table -> false);
+        transactionTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(StockTransaction item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() >= transactionList.size() - LOAD_AHEAD_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
         
         TableColumn<StockTransaction, Integer> idCol = new TableColumn<>("ID");
         idCol.setCellValueFactory(new PropertyValueFactory<>("transactionId"));
@@ -94,20 +128,137 @@ public class TransactionController {
         
         transactionTable.getColumns().addAll(idCol, productCol, typeCol, quantityCol, dateCol, refCol, notesCol);
         
-        view.getChildren().addAll(titleLabel, transactionTable);
+        statusLabel = new Label();
+        
+        view.getChildren().addAll(titleLabel, createFilterBar(), transactionTable, statusLabel);
         VBox.setVgrow(transactionTable, Priority.ALWAYS);
         
         mainLayout.setCenter(view);
         loadTransactions();
     }
     
+    private HBox createFilterBar() {
+        HBox filterBar = new HBox(10);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        
+        fromPicker = new DatePicker();
+        fromPicker.setPromptText("From");
+        fromPicker.setPrefWidth(130);
+        
+        toPicker = new DatePicker();
+        toPicker.setPromptText("To");
+        toPicker.setPrefWidth(130);
+        
+        skuField = new TextField();
+        skuField.setPromptText("Product SKU");
+        skuField.setPrefWidth(140);
+        skuField.setOnAction(e -> loadTransactions());
+        
+        typeCombo = new ComboBox<>();
+        typeCombo.getItems().addAll(StockTransaction.TransactionType.values());
+        typeCombo.setPromptText("All types");
+        
+        referenceField = new TextField();
+        referenceField.setPromptText("Reference starts with");
+        referenceField.setPrefWidth(170);
+        referenceField.setOnAction(e -> loadTransactions());
+        
+        Button applyBtn = new Button("Apply");
+        applyBtn.setOnAction(e -> loadTransactions());
+        
+        Button clearBtn = new Button("Clear");
+        clearBtn.setOnAction(e -> {
+            fromPicker.setValue(null);
+            toPicker.setValue(null);
+            skuField.clear();
+            typeCombo.getSelectionModel().clearSelection();
+            typeCombo.setValue(null);
+            referenceField.clear();
+            loadTransactions();
+        });
+        
+        // Exports what the filter fields currently select, whether or not Apply was pressed.
+        Button exportBtn = new Button("Export");
+        exportBtn.setOnAction(e -> {
+            TransactionFilter exportFilter = readFilter();
+            ExportAction.run((Stage) mainLayout.getScene().getWindow(), "Export Transactions", "transactions.csv",
+                (file, format, gzip, progress) ->
+                    exportService.exportTransactions(file, exportFilter, format, gzip, progress));
+        });
+        
+        filterBar.getChildren().addAll(fromPicker, toPicker, skuField, typeCombo, referenceField, applyBtn, clearBtn,
+                                       exportBtn);
+        return filterBar;
+    }
+    
+    private TransactionFilter readFilter() {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        return new TransactionFilter(
+            from != null ? from.atStartOfDay() : null,
+            to != null ? to.plusDays(1).atStartOfDay() : null,
+            emptyToNull(skuField.getText()),
+            typeCombo.getValue(),
+            emptyToNull(referenceField.getText()));
+    }
+    
+    private static String emptyToNull(String text) {
+        return text == null || text.trim().isEmpty() ? null : text.trim();
+    }
+    
+    /**
+     * Starts over with the first page for the current filter; further pages are fetched as
+     * the user scrolls towards the end of the table.
+     */
     private void loadTransactions() {
-        try {
-            List<StockTransaction> transactions = transactionDAO.findAll();
-            transactionList.clear();
-            transactionList.addAll(transactions);
-        } catch (SQLException e) {
-            AlertUtil.showError("Database Error", "Failed to load transactions: " + e.getMessage());
+        filter = readFilter();
+        int requestGeneration = ++generation;
+        loading = true;
+        exhausted = false;
+        transactionList.clear();
+        
+        TransactionFilter pageFilter = filter;
+        FxAsync.load(transactionTable, () -> transactionDAO.findPage(pageFilter, null, PAGE_SIZE),
+            page -> applyPage(requestGeneration, page),
+            error -> {
+                // A superseded load must not clear the flag of the one that replaced it.
+                if (requestGeneration == generation) {
+                    loading = false;
+                    FxAsync.showError("Failed to load transactions").accept(error);
+                }
+            });
+    }
+    
+    private void loadNextPage() {
+        if (loading || exhausted || transactionList.isEmpty()) {
+            return;
         }
+        
+        int requestGeneration = generation;
+        loading = true;
+        TransactionFilter pageFilter = filter;
+        StockTransaction after = transactionList.get(transactionList.size() - 1);
+        statusLabel.setText("Loading more...");
+        FxAsync.run(() -> transactionDAO.findPage(pageFilter, after, PAGE_SIZE),
+            page -> applyPage(requestGeneration, page),
+            error -> {
+                if (requestGeneration == generation) {
+                    // Left as not loading, so scrolling to the end again retries.
+                    loading = false;
+                    statusLabel.setText("Failed to load more transactions: " + error.getMessage());
+                }
+            });
+    }
+    
+    private void applyPage(int requestGeneration, List<StockTransaction> page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        
+        loading = false;
+        exhausted = page.size() < PAGE_SIZE;
+        transactionList.addAll(page);
+        statusLabel.setText(transactionList.size() + " transaction(s)" +
+                            (exhausted ? "" : " shown, scroll for more"));
     }
 }
\ No newline at end of file
@@ -1,13 +1,111 @@
 package com.example.smartstock.dao;
 
 import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.metrics.DaoMetrics;
+import com.example.smartstock.metrics.DaoOperationEvent;
+import com.example.smartstock.util.FxThreadGuard;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
 
 public abstract class BaseDAO {
     
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    
     protected Connection getConnection() throws SQLException {
-        return DatabaseConnection.getInstance().getConnection();
+        FxThreadGuard.assertNotFxThread(getClass().getSimpleName());
+        DaoMetrics metrics = DaoMetrics.getInstance();
+        if (!metrics.isCollecting()) {
+            return DatabaseConnection.getInstance().getConnection();
+        }
+        
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            Connection conn = DatabaseConnection.getInstance().getConnection();
+            failed = false;
+            return conn;
+        } finally {
+            metrics.recordConnectionAcquire(System.nanoTime() - started, failed);
+        }
+    }
+    
+    /**
+     * Prepares {@code sql} on {@code conn}. All DAO statements go through here (or the overloads
+     * below) so that {@link DaoMetrics} and JFR ({@link DaoOperationEvent}) can time them under
+     * the name of the calling DAO method; while metrics, the slow-query log and the JFR event are
+     * all off the driver's statement is returned as is.
+     */
+    protected PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return instrument(conn.prepareStatement(sql), sql);
+    }
+    
+    protected PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        return instrument(conn.prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+    
+    protected PreparedStatement prepare(Connection conn, String sql, int resultSetType,
+                                        int resultSetConcurrency) throws SQLException {
+        return instrument(conn.prepareStatement(sql, resultSetType, resultSetConcurrency), sql);
+    }
+    
+    private PreparedStatement instrument(PreparedStatement stmt, String sql) {
+        DaoMetrics metrics = DaoMetrics.getInstance();
+        if (!metrics.isActive() && !DaoOperationEvent.isRecording()) {
+            return stmt;
+        }
+        return InstrumentedStatement.wrap(stmt, metrics.statement(callerName()), sql);
+    }
+    
+    /**
+     * {@code ProductDAO.findPage} for a statement prepared in {@code ProductDAO.findPage},
+     * including from a lambda inside it.
+     */
+    private String callerName() {
+        Optional<StackWalker.StackFrame> caller = STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getDeclaringClass() != BaseDAO.class)
+            .findFirst());
+        if (caller.isEmpty()) {
+            return getClass().getSimpleName();
+        }
+        String method = caller.get().getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = end > 7 ? method.substring(7, end) : method.substring(7);
+        }
+        return caller.get().getDeclaringClass().getSimpleName() + "." + method;
+    }
+    
+    /**
+     * Runs {@code work} on a single connection inside one transaction. The transaction is
+     * committed when {@code work} returns and rolled back if it throws.
+     */
+    protected <T> T executeInTransaction(TransactionCallback<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.doInTransaction(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    protected void bindParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
     }
     
     protected void closeResources(AutoCloseable... resources) {
@@ -21,4 +119,9 @@ public abstract class BaseDAO {
             }
         }
     }
+    
+    @FunctionalInterface
+    protected interface TransactionCallback<T> {
+        T doInTransaction(Connection conn) throws SQLException;
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.smartstock.dao;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets a caller abort a running DAO query from another thread. DAO methods that accept a token
+ * register their statement while it executes; {@link #cancel()} then cancels it on the server.
+ */
+public class CancellationToken {
+    private Statement statement;
+    private boolean cancelled;
+    
+    public void cancel() {
+        Statement running;
+        synchronized (this) {
+            cancelled = true;
+            running = statement;
+        }
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                // The statement may already have finished; nothing left to cancel.
+            }
+        }
+    }
+    
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+    
+    synchronized void attach(Statement running) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled");
+        }
+        statement = running;
+    }
+    
+    synchronized void detach() {
+        statement = null;
+    }
+}
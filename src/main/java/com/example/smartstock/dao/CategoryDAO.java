@@ -1,5 +1,7 @@
 package com.example.smartstock.dao;
 
+import com.example.smartstock.cache.ProductCache;
+import com.example.smartstock.cache.ReferenceDataCache;
 import com.example.smartstock.models.Category;
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,7 +15,7 @@ public class CategoryDAO extends BaseDAO {
         String sql = "SELECT * FROM categories ORDER BY name";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = prepare(conn, sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
@@ -27,7 +29,7 @@ public class CategoryDAO extends BaseDAO {
         String sql = "SELECT * FROM categories WHERE category_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -43,7 +45,7 @@ public class CategoryDAO extends BaseDAO {
         String sql = "INSERT INTO categories (name, description) VALUES (?, ?)";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
@@ -56,32 +58,53 @@ public class CategoryDAO extends BaseDAO {
                 }
             }
         }
+        ReferenceDataCache.getInstance().invalidate();
         return category;
     }
     
+    /**
+     * Writes the category if it is still at the version it was read at.
+     *
+     * @throws OptimisticLockException if another user changed or deleted it meanwhile
+     */
     public void update(Category category) throws SQLException {
-        String sql = "UPDATE categories SET name = ?, description = ? WHERE category_id = ?";
+        String sql = "UPDATE categories SET name = ?, description = ?, version = version + 1 " +
+                    "WHERE category_id = ? AND version = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
             stmt.setInt(3, category.getCategoryId());
+            stmt.setInt(4, category.getVersion());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                throw new OptimisticLockException("Category", category.getCategoryId(), category.getVersion());
+            }
         }
+        category.setVersion(category.getVersion() + 1);
+        invalidateDependentCaches();
     }
     
     public void delete(Integer id) throws SQLException {
         String sql = "DELETE FROM categories WHERE category_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        invalidateDependentCaches();
+    }
+    
+    /**
+     * Products carry the category name, so cached products are dropped along with the pick lists.
+     */
+    private static void invalidateDependentCaches() {
+        ReferenceDataCache.getInstance().invalidate();
+        ProductCache.getInstance().clear();
     }
     
     private Category mapResultSetToCategory(ResultSet rs) throws SQLException {
@@ -91,6 +114,7 @@ public class CategoryDAO extends BaseDAO {
         category.setDescription(rs.getString("description"));
         category.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         category.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        category.setVersion(rs.getInt("version"));
         return category;
     }
 }
\ No newline at end of file
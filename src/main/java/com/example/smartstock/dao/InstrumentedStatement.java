@@ -0,0 +1,238 @@
+package com.example.smartstock.dao;
+
+import com.example.smartstock.metrics.DaoMetrics;
+import com.example.smartstock.metrics.DaoOperationEvent;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Times a prepared statement for {@link DaoMetrics} and as a {@link DaoOperationEvent} for JFR.
+ * Updates and batches are timed around the execute call. A query is timed as the time to its
+ * first row plus the time spent in {@code ResultSet.next()}, so rows streamed from the server
+ * count towards it but work the caller does between rows, such as writing an export, does not.
+ * It is recorded when its result set is closed. Bind parameters are remembered for the
+ * slow-query log.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+    private final PreparedStatement delegate;
+    private final DaoMetrics.StatementMetrics metrics;
+    private final String sql;
+    private final Map<Integer, Object> parameters = new TreeMap<>();
+    private int batchSize;
+    
+    // The open result set of the last executeQuery, if any.
+    private long queryNanos;
+    private long fetchNanos;
+    private long queryRows;
+    private DaoOperationEvent queryEvent;
+    
+    private InstrumentedStatement(PreparedStatement delegate, DaoMetrics.StatementMetrics metrics, String sql) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sql = sql;
+    }
+    
+    static PreparedStatement wrap(PreparedStatement delegate, DaoMetrics.StatementMetrics metrics, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            new InstrumentedStatement(delegate, metrics, sql));
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+                if (args == null) {
+                    return executeQuery();
+                }
+                break;
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "execute":
+            case "executeBatch":
+            case "executeLargeBatch":
+                if (args == null) {
+                    return executeTimed(method);
+                }
+                break;
+            case "addBatch":
+                batchSize++;
+                break;
+            case "clearParameters":
+                parameters.clear();
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                break;
+            case "close":
+                finishQuery(false);
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                // setInt(1, ...), setString(2, ...), setNull(3, type) etc.
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                }
+                break;
+        }
+        return call(method, args);
+    }
+    
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private ResultSet executeQuery() throws Throwable {
+        finishQuery(false);
+        DaoOperationEvent event = new DaoOperationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        ResultSet resultSet;
+        try {
+            resultSet = delegate.executeQuery();
+        } catch (Throwable e) {
+            event.end();
+            record(event, System.nanoTime() - started, 0, true);
+            throw e;
+        }
+        // The event covers the time to the first row; reading the rest is added as its fetch time.
+        event.end();
+        queryNanos = System.nanoTime() - started;
+        fetchNanos = 0;
+        queryRows = 0;
+        queryEvent = event;
+        return (ResultSet) Proxy.newProxyInstance(
+            InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[] { ResultSet.class },
+            new ResultSetHandler(resultSet));
+    }
+    
+    private void finishQuery(boolean failed) {
+        if (queryEvent != null) {
+            DaoOperationEvent event = queryEvent;
+            queryEvent = null;
+            event.fetchTime = fetchNanos;
+            record(event, queryNanos + fetchNanos, queryRows, failed);
+        }
+    }
+    
+    private Object executeTimed(Method method) throws Throwable {
+        finishQuery(false);
+        DaoOperationEvent event = new DaoOperationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        boolean failed = true;
+        long rows = 0;
+        try {
+            Object result = call(method, null);
+            rows = countRows(result);
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            record(event, System.nanoTime() - started, rows, failed);
+            batchSize = 0;
+        }
+    }
+    
+    private void record(DaoOperationEvent event, long nanos, long rows, boolean failed) {
+        metrics.record(nanos, rows, failed, sql, this::describeParameters);
+        if (event.shouldCommit()) {
+            event.operation = metrics.name();
+            event.sql = sql;
+            event.rows = rows;
+            event.batchSize = batchSize;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+    
+    private static long countRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof Long count) {
+            return Math.max(0, count);
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+    
+    private String describeParameters() {
+        if (batchSize > 0) {
+            return "[batch of " + batchSize + "]";
+        }
+        return parameters.values().toString();
+    }
+    
+    /**
+     * Counts the rows read, times {@code next()} and records the query when the result set is
+     * closed.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        
+        private ResultSetHandler(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean hasRow;
+                    long started = System.nanoTime();
+                    try {
+                        hasRow = resultSet.next();
+                    } catch (Throwable e) {
+                        fetchNanos += System.nanoTime() - started;
+                        finishQuery(true);
+                        throw e;
+                    }
+                    fetchNanos += System.nanoTime() - started;
+                    if (hasRow) {
+                        queryRows++;
+                    }
+                    return hasRow;
+                case "close":
+                    finishQuery(false);
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.smartstock.dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves old ledger rows from {@code stock_transactions} to {@code stock_transactions_archive}
+ * (see {@code db/migration/V5__stock_transactions_archive.sql}) and tells the other DAOs which
+ * of the two tables a date range has to read.
+ * <p>
+ * Rows are always archived oldest first, so every archived row is dated at or before the oldest
+ * row still in {@code stock_transactions}. That date is read from the (transaction_date,
+ * transaction_id) index whenever a range is resolved, so no separate boundary has to be kept in
+ * step with the tables.
+ */
+public class LedgerArchiveDAO extends BaseDAO {
+    static final String HOT_TABLE = "stock_transactions";
+    static final String ARCHIVE_TABLE = "stock_transactions_archive";
+    
+    private static volatile Boolean archiveAvailable;
+    
+    /**
+     * The ledger tables that can hold rows dated in [{@code from}, {@code to}), newest rows
+     * first: for any one query, all rows of the first table sort after all rows of the second.
+     * Either bound may be {@code null} for an open range.
+     */
+    List<String> tablesFor(Connection conn, LocalDateTime from, LocalDateTime to) throws SQLException {
+        if (!isArchiveAvailable(conn)) {
+            return List.of(HOT_TABLE);
+        }
+        
+        LocalDateTime hotStart = findHotStart(conn);
+        if (hotStart == null) {
+            // Nothing recent: only the archive can match, but new postings land in the hot table.
+            return List.of(HOT_TABLE, ARCHIVE_TABLE);
+        }
+        boolean readHot = to == null || to.isAfter(hotStart);
+        boolean readArchive = from == null || !from.isAfter(hotStart);
+        if (readHot && readArchive) {
+            return List.of(HOT_TABLE, ARCHIVE_TABLE);
+        }
+        return readArchive ? List.of(ARCHIVE_TABLE) : List.of(HOT_TABLE);
+    }
+    
+    /**
+     * Whether the archive table exists. Until the migration has been applied every query reads
+     * the hot table only. Checked once and then cached.
+     */
+    private boolean isArchiveAvailable(Connection conn) throws SQLException {
+        Boolean available = archiveAvailable;
+        if (available != null) {
+            return available;
+        }
+        
+        String sql = "SELECT COUNT(*) FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + ARCHIVE_TABLE + "'";
+        try (PreparedStatement stmt = prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            available = rs.getInt(1) > 0;
+        }
+        archiveAvailable = available;
+        return available;
+    }
+    
+    private LocalDateTime findHotStart(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = prepare(conn, "SELECT MIN(transaction_date) FROM " + HOT_TABLE);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            Timestamp hotStart = rs.getTimestamp(1);
+            return hotStart == null ? null : hotStart.toLocalDateTime();
+        }
+    }
+    
+    public boolean isAvailable() throws SQLException {
+        try (Connection conn = getConnection()) {
+            archiveAvailable = null;
+            return isArchiveAvailable(conn);
+        }
+    }
+    
+    /**
+     * Moves up to {@code chunkSize} of the oldest ledger rows dated before {@code cutoff} to the
+     * archive, copying and deleting them in one transaction. Callers repeat until fewer than
+     * {@code chunkSize} rows were moved; each chunk holds its locks only briefly.
+     *
+     * @return the number of rows moved
+     */
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) throws SQLException {
+        return executeInTransaction(conn -> {
+            // The last row of the chunk; everything up to it in (date, id) order is moved.
+            String lastRowSql = "SELECT transaction_date, transaction_id FROM " + HOT_TABLE + " " +
+                               "WHERE transaction_date < ? " +
+                               "ORDER BY transaction_date, transaction_id LIMIT 1 OFFSET ? FOR UPDATE";
+            Timestamp lastDate = null;
+            int lastId = 0;
+            try (PreparedStatement stmt = prepare(conn, lastRowSql)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                stmt.setInt(2, chunkSize - 1);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        lastDate = rs.getTimestamp("transaction_date");
+                        lastId = rs.getInt("transaction_id");
+                    }
+                }
+            }
+            
+            // Fewer than chunkSize rows left: the final chunk is everything before the cutoff.
+            String where = lastDate == null
+                ? "WHERE transaction_date < ?"
+                : "WHERE transaction_date < ? AND " +
+                  "(transaction_date < ? OR (transaction_date = ? AND transaction_id <= ?))";
+            try (PreparedStatement stmt = prepare(conn,
+                    "INSERT INTO " + ARCHIVE_TABLE + " SELECT * FROM " + HOT_TABLE + " " + where)) {
+                bindChunk(stmt, cutoff, lastDate, lastId);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = prepare(conn, "DELETE FROM " + HOT_TABLE + " " + where)) {
+                bindChunk(stmt, cutoff, lastDate, lastId);
+                return stmt.executeUpdate();
+            }
+        });
+    }
+    
+    private static void bindChunk(PreparedStatement stmt, LocalDateTime cutoff, Timestamp lastDate,
+                                  int lastId) throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+        if (lastDate != null) {
+            stmt.setTimestamp(2, lastDate);
+            stmt.setTimestamp(3, lastDate);
+            stmt.setInt(4, lastId);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.smartstock.dao;
+
+/**
+ * Period length that {@link StockMovementDAO#findMovements} groups daily totals into.
+ */
+public enum MovementGranularity {
+    DAY("d.movement_date"),
+    /** Weeks start on Monday. */
+    WEEK("DATE_SUB(d.movement_date, INTERVAL WEEKDAY(d.movement_date) DAY)"),
+    MONTH("DATE_SUB(d.movement_date, INTERVAL DAYOFMONTH(d.movement_date) - 1 DAY)");
+    
+    private final String periodStartExpression;
+    
+    MovementGranularity(String periodStartExpression) {
+        this.periodStartExpression = periodStartExpression;
+    }
+    
+    String periodStartExpression() {
+        return periodStartExpression;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.smartstock.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown by an update that found the row at a different version than the one it was read at:
+ * another user changed or deleted it in between. Nothing was written.
+ */
+public class OptimisticLockException extends SQLException {
+    private final String entity;
+    private final Integer id;
+    private final int expectedVersion;
+    
+    public OptimisticLockException(String entity, Integer id, int expectedVersion) {
+        super(entity + " " + id + " was changed or deleted by another user (expected version " +
+              expectedVersion + ")");
+        this.entity = entity;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+    
+    public String getEntity() {
+        return entity;
+    }
+    
+    public Integer getId() {
+        return id;
+    }
+    
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+}
@@ -1,12 +1,41 @@
 package com.example.smartstock.dao;
 
+import com.example.smartstock.cache.ProductCache;
 import com.example.smartstock.models.Product;
+import com.example.smartstock.models.Product.Field;
+import com.example.smartstock.search.ProductSearchIndex;
+import com.example.smartstock.service.LowStockTracker;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class ProductDAO extends BaseDAO {
+    private static final String SELECT_WITH_NAMES =
+        "SELECT p.*, c.name as category_name, s.name as supplier_name " +
+        "FROM products p " +
+        "LEFT JOIN categories c ON p.category_id = c.category_id " +
+        "LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id ";
+    
+    private static final Map<Field, String> COLUMNS = new EnumMap<>(Map.of(
+        Field.NAME, "name",
+        Field.DESCRIPTION, "description",
+        Field.SKU, "sku",
+        Field.CATEGORY, "category_id",
+        Field.SUPPLIER, "supplier_id",
+        Field.UNIT_PRICE, "unit_price",
+        Field.MINIMUM_STOCK, "minimum_stock"));
+    private static final Map<Set<Field>, String> UPDATE_STATEMENTS = new ConcurrentHashMap<>();
+    
+    private static volatile Boolean fulltextAvailable;
     
     public List<Product> findAll() throws SQLException {
         List<Product> products = new ArrayList<>();
@@ -17,7 +46,7 @@ public class ProductDAO extends BaseDAO {
                     "ORDER BY p.name";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = prepare(conn, sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
@@ -27,12 +56,130 @@ public class ProductDAO extends BaseDAO {
         return products;
     }
     
+    /**
+     * Returns the page of products that follows {@code after} in (name, product_id) order.
+     * Seeking on the sort key instead of using OFFSET keeps every page equally cheap, however
+     * deep into the catalog it is.
+     *
+     * @param after last product of the previous page, or {@code null} for the first page
+     */
+    public List<Product> findPage(ProductFilter filter, Product after, int pageSize) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_WITH_NAMES).append("WHERE 1 = 1 ");
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append("AND (p.name > ? OR (p.name = ? AND p.product_id > ?)) ");
+            params.add(after.getName());
+            params.add(after.getName());
+            params.add(after.getProductId());
+        }
+        sql.append("ORDER BY p.name, p.product_id LIMIT ?");
+        params.add(pageSize);
+        
+        List<Product> products = new ArrayList<>(pageSize);
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql.toString())) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapResultSetToProduct(rs));
+                }
+            }
+        }
+        return products;
+    }
+    
+    /**
+     * Returns {@code pageSize} products starting at row {@code offset} in (name, product_id)
+     * order. Only meant for jumping to a page whose predecessor is unknown; sequential paging
+     * should use {@link #findPage}, which does not scan the skipped rows.
+     */
+    public List<Product> findPageAt(ProductFilter filter, int offset, int pageSize) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_WITH_NAMES).append("WHERE 1 = 1 ");
+        appendFilter(sql, params, filter);
+        sql.append("ORDER BY p.name, p.product_id LIMIT ? OFFSET ?");
+        params.add(pageSize);
+        params.add(offset);
+        
+        List<Product> products = new ArrayList<>(pageSize);
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql.toString())) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapResultSetToProduct(rs));
+                }
+            }
+        }
+        return products;
+    }
+    
+    /**
+     * Streams every matching product, in (name, product_id) order, to {@code consumer} without
+     * collecting them. The driver fetches {@code fetchSize} rows at a time from a forward-only
+     * result set, so memory use does not grow with the catalog.
+     *
+     * @return the number of products passed to {@code consumer}
+     */
+    public int streamAll(ProductFilter filter, int fetchSize, Consumer<Product> consumer) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_WITH_NAMES).append("WHERE 1 = 1 ");
+        appendFilter(sql, params, filter);
+        sql.append("ORDER BY p.name, p.product_id");
+        
+        int count = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql.toString(),
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(fetchSize);
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToProduct(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    public int count(ProductFilter filter) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM products p WHERE 1 = 1 ");
+        appendFilter(sql, params, filter);
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql.toString())) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+    
+    private void appendFilter(StringBuilder sql, List<Object> params, ProductFilter filter) {
+        if (filter.categoryId() != null) {
+            sql.append("AND p.category_id = ? ");
+            params.add(filter.categoryId());
+        }
+        if (filter.supplierId() != null) {
+            sql.append("AND p.supplier_id = ? ");
+            params.add(filter.supplierId());
+        }
+    }
+    
     public List<Product> findLowStock() throws SQLException {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM low_stock_products";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = prepare(conn, sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
@@ -45,6 +192,7 @@ public class ProductDAO extends BaseDAO {
                 product.setCurrentStock(rs.getInt("current_stock"));
                 product.setMinimumStock(rs.getInt("minimum_stock"));
                 product.setUnitPrice(rs.getBigDecimal("unit_price"));
+                product.markClean();
                 products.add(product);
             }
         }
@@ -52,6 +200,11 @@ public class ProductDAO extends BaseDAO {
     }
     
     public Optional<Product> findById(Integer id) throws SQLException {
+        Optional<Product> cached = ProductCache.getInstance().get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        
         String sql = "SELECT p.*, c.name as category_name, s.name as supplier_name " +
                     "FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.category_id " +
@@ -59,12 +212,91 @@ public class ProductDAO extends BaseDAO {
                     "WHERE p.product_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToProduct(rs));
+                    Product product = mapResultSetToProduct(rs);
+                    ProductCache.getInstance().put(product);
+                    return Optional.of(product);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Loads the given products, returned in the order of {@code ids}. Products in the
+     * {@link ProductCache} are taken from there; the rest are read in one query. IDs that no
+     * longer exist are skipped.
+     */
+    public List<Product> findByIds(List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        ProductCache cache = ProductCache.getInstance();
+        Map<Integer, Product> byId = new HashMap<>(ids.size() * 2);
+        List<Object> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Optional<Product> cached = cache.get(id);
+            if (cached.isPresent()) {
+                byId.put(id, cached.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(missing.size(), "?"));
+            String sql = SELECT_WITH_NAMES + "WHERE p.product_id IN (" + placeholders + ")";
+            
+            try (Connection conn = getConnection();
+                 PreparedStatement stmt = prepare(conn, sql)) {
+                
+                bindParameters(stmt, missing);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Product product = mapResultSetToProduct(rs);
+                        cache.put(product);
+                        byId.put(product.getProductId(), product);
+                    }
+                }
+            }
+        }
+        
+        List<Product> products = new ArrayList<>(byId.size());
+        for (Integer id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    public Optional<Product> findBySku(String sku) throws SQLException {
+        Optional<Product> cached = ProductCache.getInstance().getBySku(sku);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        
+        String sql = "SELECT p.*, c.name as category_name, s.name as supplier_name " +
+                    "FROM products p " +
+                    "LEFT JOIN categories c ON p.category_id = c.category_id " +
+                    "LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id " +
+                    "WHERE p.sku = ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql)) {
+            
+            stmt.setString(1, sku);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Product product = mapResultSetToProduct(rs);
+                    ProductCache.getInstance().put(product);
+                    return Optional.of(product);
                 }
             }
         }
@@ -76,11 +308,11 @@ public class ProductDAO extends BaseDAO {
                     "unit_price, current_stock, minimum_stock) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, product.getName());
             stmt.setString(2, product.getDescription());
-            stmt.setString(3, product.getSku());
+            stmt.setString(3, skuOrNull(product.getSku()));
             stmt.setObject(4, product.getCategoryId());
             stmt.setObject(5, product.getSupplierId());
             stmt.setBigDecimal(6, product.getUnitPrice());
@@ -95,28 +327,238 @@ public class ProductDAO extends BaseDAO {
                 }
             }
         }
+        product.markClean();
+        ProductSearchIndex.getInstance().index(product);
+        LowStockTracker.getInstance().productChanged(product);
         return product;
     }
     
-    public void update(Product product) throws SQLException {
-        String sql = "UPDATE products SET name = ?, description = ?, sku = ?, category_id = ?, " +
-                    "supplier_id = ?, unit_price = ?, current_stock = ?, minimum_stock = ? " +
-                    "WHERE product_id = ?";
+    /**
+     * Writes the fields changed since the product was loaded, if it is still at the version it
+     * was read at; a product without changes is not written at all. {@code current_stock} is
+     * never written: it only changes through stock postings, which an edit must never undo. The
+     * committed stock level is read back into {@code product}.
+     *
+     * @return {@code false} if there was nothing to write
+     * @throws OptimisticLockException if another user changed or deleted the product meanwhile
+     */
+    public boolean update(Product product) throws SQLException {
+        Set<Field> dirtyFields = product.getDirtyFields();
+        if (dirtyFields.isEmpty()) {
+            return false;
+        }
+        String sql = UPDATE_STATEMENTS.computeIfAbsent(dirtyFields, ProductDAO::buildUpdate);
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
-            stmt.setString(1, product.getName());
-            stmt.setString(2, product.getDescription());
-            stmt.setString(3, product.getSku());
-            stmt.setObject(4, product.getCategoryId());
-            stmt.setObject(5, product.getSupplierId());
-            stmt.setBigDecimal(6, product.getUnitPrice());
-            stmt.setInt(7, product.getCurrentStock());
-            stmt.setInt(8, product.getMinimumStock());
-            stmt.setInt(9, product.getProductId());
+            int index = 1;
+            for (Field field : dirtyFields) {
+                bindField(stmt, index++, field, product);
+            }
+            stmt.setInt(index++, product.getProductId());
+            stmt.setInt(index, product.getVersion());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                // Our cached copy may be the stale one; the caller re-reads to resolve the conflict.
+                ProductCache.getInstance().invalidate(product.getProductId());
+                throw new OptimisticLockException("Product", product.getProductId(), product.getVersion());
+            }
+            product.setVersion(product.getVersion() + 1);
+            product.markClean();
+            readCurrentStock(conn, product);
+        }
+        // The edited product has no fresh category/supplier names, so it is re-read on next use.
+        ProductCache.getInstance().invalidate(product.getProductId());
+        ProductSearchIndex.getInstance().index(product);
+        LowStockTracker.getInstance().productChanged(product);
+        return true;
+    }
+    
+    /**
+     * UPDATE for exactly the given columns, in {@link Field} order. There are at most 2^7 column
+     * sets and edits usually touch the same few, so the SQL is built once per set.
+     */
+    private static String buildUpdate(Set<Field> fields) {
+        StringBuilder sql = new StringBuilder("UPDATE products SET ");
+        for (Field field : fields) {
+            sql.append(COLUMNS.get(field)).append(" = ?, ");
+        }
+        return sql.append("version = version + 1 WHERE product_id = ? AND version = ?").toString();
+    }
+    
+    private static void bindField(PreparedStatement stmt, int index, Field field, Product product) throws SQLException {
+        switch (field) {
+            case NAME -> stmt.setString(index, product.getName());
+            case DESCRIPTION -> stmt.setString(index, product.getDescription());
+            case SKU -> stmt.setString(index, skuOrNull(product.getSku()));
+            case CATEGORY -> stmt.setObject(index, product.getCategoryId());
+            case SUPPLIER -> stmt.setObject(index, product.getSupplierId());
+            case UNIT_PRICE -> stmt.setBigDecimal(index, product.getUnitPrice());
+            case MINIMUM_STOCK -> stmt.setInt(index, product.getMinimumStock());
+        }
+    }
+    
+    /**
+     * SKUs are unique ({@code uq_products_sku}); a product without one is stored with NULL,
+     * which may repeat, rather than an empty string, which may not.
+     */
+    private static String skuOrNull(String sku) {
+        return sku == null || sku.isBlank() ? null : sku;
+    }
+    
+    /**
+     * {@code sku} as {@code uq_products_sku} compares it: the column collation ignores case and
+     * trailing spaces, so "ABC-1" and "abc-1 " are the same SKU.
+     */
+    public static String skuKey(String sku) {
+        return sku.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private void readCurrentStock(Connection conn, Product product) throws SQLException {
+        try (PreparedStatement stmt = prepare(conn,
+                "SELECT current_stock FROM products WHERE product_id = ?")) {
+            stmt.setInt(1, product.getProductId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    product.setCurrentStock(rs.getInt("current_stock"));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Product IDs keyed by {@link #skuKey SKU key}, for matching imported rows to existing
+     * products without a query per row. Products without a SKU are left out.
+     */
+    public Map<String, Integer> findIdsBySku() throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        String sql = "SELECT product_id, sku FROM products WHERE sku IS NOT NULL AND sku <> ''";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(skuKey(rs.getString("sku")), rs.getInt("product_id"));
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Current and minimum stock of every product, keyed by product ID, for the
+     * {@link LowStockTracker} to work out threshold crossings from posted deltas.
+     */
+    public Map<Integer, LowStockTracker.StockLevel> findStockLevels() throws SQLException {
+        Map<Integer, LowStockTracker.StockLevel> levels = new HashMap<>();
+        String sql = "SELECT product_id, current_stock, minimum_stock FROM products";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    levels.put(rs.getInt("product_id"),
+                               new LowStockTracker.StockLevel(rs.getInt("current_stock"), rs.getInt("minimum_stock")));
+                }
+            }
+        }
+        return levels;
+    }
+    
+    /**
+     * Inserts {@code newProducts} and overwrites the editable fields of {@code existingProducts}
+     * in one transaction, with one JDBC batch per statement. Existing products keep their stock,
+     * which only changes through postings, and get a new version so open edits of them conflict.
+     * Generated IDs are set on {@code newProducts}.
+     */
+    public void importBatch(List<Product> newProducts, List<Product> existingProducts) throws SQLException {
+        executeInTransaction(conn -> {
+            if (!newProducts.isEmpty()) {
+                insertBatch(conn, newProducts);
+            }
+            if (!existingProducts.isEmpty()) {
+                updateBatch(conn, existingProducts);
+            }
+            return null;
+        });
+        
+        ProductCache cache = ProductCache.getInstance();
+        ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
+        for (Product product : newProducts) {
+            product.markClean();
+            searchIndex.index(product);
+        }
+        List<Integer> updatedIds = new ArrayList<>(existingProducts.size());
+        for (Product product : existingProducts) {
+            cache.invalidate(product.getProductId());
+            searchIndex.index(product);
+            updatedIds.add(product.getProductId());
+        }
+        
+        LowStockTracker tracker = LowStockTracker.getInstance();
+        if (tracker.isSeeded()) {
+            tracker.productsChanged(newProducts);
+            // Imported rows do not carry the stock of existing products, so it is read back.
+            if (!updatedIds.isEmpty()) {
+                tracker.productsChanged(findByIds(updatedIds));
+            }
+        }
+    }
+    
+    private void insertBatch(Connection conn, List<Product> products) throws SQLException {
+        String sql = "INSERT INTO products (name, description, sku, category_id, supplier_id, " +
+                    "unit_price, current_stock, minimum_stock) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Product product : products) {
+                stmt.setString(1, product.getName());
+                stmt.setString(2, product.getDescription());
+                stmt.setString(3, skuOrNull(product.getSku()));
+                stmt.setObject(4, product.getCategoryId());
+                stmt.setObject(5, product.getSupplierId());
+                stmt.setBigDecimal(6, product.getUnitPrice());
+                stmt.setInt(7, product.getCurrentStock());
+                stmt.setInt(8, product.getMinimumStock());
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (Product product : products) {
+                    if (!keys.next()) {
+                        throw new SQLException("Expected " + products.size() + " generated product IDs, got " +
+                                               products.indexOf(product));
+                    }
+                    product.setProductId(keys.getInt(1));
+                }
+            }
+        }
+    }
+    
+    private void updateBatch(Connection conn, List<Product> products) throws SQLException {
+        String sql = "UPDATE products SET name = ?, description = ?, category_id = ?, supplier_id = ?, " +
+                    "unit_price = ?, minimum_stock = ?, version = version + 1 WHERE product_id = ?";
+        
+        try (PreparedStatement stmt = prepare(conn, sql)) {
+            for (Product product : products) {
+                stmt.setString(1, product.getName());
+                stmt.setString(2, product.getDescription());
+                stmt.setObject(3, product.getCategoryId());
+                stmt.setObject(4, product.getSupplierId());
+                stmt.setBigDecimal(5, product.getUnitPrice());
+                stmt.setInt(6, product.getMinimumStock());
+                stmt.setInt(7, product.getProductId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
     }
     
@@ -124,50 +566,208 @@ public class ProductDAO extends BaseDAO {
         String sql = "UPDATE products SET current_stock = ? WHERE product_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, newStock);
             stmt.setInt(2, productId);
             stmt.executeUpdate();
         }
+        ProductCache.getInstance().updateStock(productId, newStock);
+    }
+    
+    /**
+     * Applies {@code delta} to the product's stock on the caller's connection. The update only
+     * matches when the resulting stock stays non-negative, so concurrent postings cannot lose
+     * updates or drive stock below zero.
+     *
+     * <p>
+     * The cached entry is dropped here, but the caller must invalidate it again once the
+     * transaction has committed or rolled back, since a concurrent read may have re-cached it.
+     *
+     * @return {@code false} if the product does not exist or has insufficient stock
+     */
+    public boolean adjustStock(Connection conn, Integer productId, int delta) throws SQLException {
+        String sql = "UPDATE products SET current_stock = current_stock + ? " +
+                    "WHERE product_id = ? AND current_stock + ? >= 0";
+        
+        ProductCache.getInstance().invalidate(productId);
+        try (PreparedStatement stmt = prepare(conn, sql)) {
+            stmt.setInt(1, delta);
+            stmt.setInt(2, productId);
+            stmt.setInt(3, delta);
+            return stmt.executeUpdate() == 1;
+        }
     }
     
     public void delete(Integer id) throws SQLException {
         String sql = "DELETE FROM products WHERE product_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        ProductCache.getInstance().invalidate(id);
+        ProductSearchIndex.getInstance().remove(id);
+        LowStockTracker.getInstance().productRemoved(id);
     }
     
     public List<Product> searchProducts(String keyword) throws SQLException {
+        return searchProducts(keyword, null);
+    }
+    
+    /**
+     * Like {@link #searchProducts(String)}, but the query can be aborted through {@code token}
+     * when the search it belongs to has been superseded.
+     */
+    public List<Product> searchProducts(String keyword, CancellationToken token) throws SQLException {
+        return searchLike(keyword, 0, token);
+    }
+    
+    /**
+     * LIKE search for {@code keyword}; with a positive {@code limit}, the first {@code limit}
+     * matches by name.
+     */
+    private List<Product> searchLike(String keyword, int limit, CancellationToken token) throws SQLException {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT p.*, c.name as category_name, s.name as supplier_name " +
                     "FROM products p " +
                     "LEFT JOIN categories c ON p.category_id = c.category_id " +
                     "LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id " +
-                    "WHERE p.name LIKE ? OR p.sku LIKE ? OR p.description LIKE ?";
+                    "WHERE p.name LIKE ? OR p.sku LIKE ? OR p.description LIKE ?" +
+                    (limit > 0 ? " ORDER BY p.name LIMIT ?" : "");
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             String searchPattern = "%" + keyword + "%";
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
             stmt.setString(3, searchPattern);
+            if (limit > 0) {
+                stmt.setInt(4, limit);
+            }
             
+            if (token != null) {
+                token.attach(stmt);
+            }
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     products.add(mapResultSetToProduct(rs));
                 }
+            } finally {
+                if (token != null) {
+                    token.detach();
+                }
             }
         }
         return products;
     }
     
+    /**
+     * Searches with the given {@link SearchMode}. The FULLTEXT modes also match SKUs by prefix,
+     * with SKU matches ranked first and the rest by relevance. If the FULLTEXT index has not been
+     * created (see {@code db/migration/V1__product_search_indexes.sql}) the LIKE search is used.
+     */
+    public List<Product> searchProducts(String keyword, SearchMode mode, int limit,
+                                        CancellationToken token) throws SQLException {
+        if (mode == SearchMode.LIKE || !hasFulltextIndex()) {
+            return searchLike(keyword, limit, token);
+        }
+        
+        String against = mode == SearchMode.BOOLEAN
+            ? "AGAINST (? IN BOOLEAN MODE)"
+            : "AGAINST (? IN NATURAL LANGUAGE MODE)";
+        String sql = "SELECT p.*, c.name as category_name, s.name as supplier_name, " +
+                    "m.relevance, m.sku_match " +
+                    "FROM (" +
+                    "  SELECT product_id, MAX(relevance) as relevance, MAX(sku_match) as sku_match FROM (" +
+                    "    SELECT product_id, MATCH(name, description) " + against + " as relevance, 0 as sku_match " +
+                    "    FROM products WHERE MATCH(name, description) " + against +
+                    "    UNION ALL " +
+                    "    SELECT product_id, 0, 1 FROM products WHERE sku LIKE ?" +
+                    "  ) hits GROUP BY product_id" +
+                    ") m " +
+                    "JOIN products p ON p.product_id = m.product_id " +
+                    "LEFT JOIN categories c ON p.category_id = c.category_id " +
+                    "LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id " +
+                    "ORDER BY m.sku_match DESC, m.relevance DESC, p.name " +
+                    "LIMIT ?";
+        
+        String query = mode == SearchMode.BOOLEAN ? toBooleanQuery(keyword) : keyword;
+        List<Product> products = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql)) {
+            
+            stmt.setString(1, query);
+            stmt.setString(2, query);
+            stmt.setString(3, escapeLike(keyword) + "%");
+            stmt.setInt(4, limit);
+            
+            if (token != null) {
+                token.attach(stmt);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapResultSetToProduct(rs));
+                }
+            } finally {
+                if (token != null) {
+                    token.detach();
+                }
+            }
+        }
+        return products;
+    }
+    
+    /**
+     * Whether {@code products} has a FULLTEXT index on exactly (name, description), such as
+     * {@code ft_products_name_description}, which {@code MATCH(name, description)} requires.
+     * Checked once and then cached.
+     */
+    public boolean hasFulltextIndex() throws SQLException {
+        Boolean available = fulltextAvailable;
+        if (available != null) {
+            return available;
+        }
+        
+        String sql = "SELECT COUNT(*) FROM (" +
+                    "  SELECT INDEX_NAME FROM information_schema.STATISTICS " +
+                    "  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_TYPE = 'FULLTEXT' " +
+                    "  GROUP BY INDEX_NAME " +
+                    "  HAVING COUNT(*) = 2 AND SUM(COLUMN_NAME IN ('name', 'description')) = 2" +
+                    ") ft";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            available = rs.getInt(1) > 0;
+        }
+        fulltextAvailable = available;
+        return available;
+    }
+    
+    private static String toBooleanQuery(String keyword) {
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.trim().split("\\s+")) {
+            // Drop characters that are boolean-mode operators so user input cannot change the query.
+            String term = word.replaceAll("[+\\-<>()~*\"@]", "");
+            if (!term.isEmpty()) {
+                query.append('+').append(term).append("* ");
+            }
+        }
+        return query.toString().trim();
+    }
+    
+    private static String escapeLike(String value) {
+        return value.trim()
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+    
     private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setProductId(rs.getInt("product_id"));
@@ -181,8 +781,10 @@ public class ProductDAO extends BaseDAO {
         product.setMinimumStock(rs.getInt("minimum_stock"));
         product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         product.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        product.setVersion(rs.getInt("version"));
         product.setCategoryName(rs.getString("category_name"));
         product.setSupplierName(rs.getString("supplier_name"));
+        product.markClean();
         return product;
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.smartstock.dao;
+
+/**
+ * Optional category/supplier restriction for paged and streamed product queries.
+ * A {@code null} component means "any".
+ */
+public record ProductFilter(Integer categoryId, Integer supplierId) {
+    
+    private static final ProductFilter ALL = new ProductFilter(null, null);
+    
+    public static ProductFilter all() {
+        return ALL;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.smartstock.dao;
+
+/**
+ * How {@link ProductDAO#searchProducts(String, SearchMode, int, CancellationToken)} matches text.
+ */
+public enum SearchMode {
+    /** Substring match with {@code LIKE '%keyword%'}; works without any index but scans the table. */
+    LIKE,
+    /** FULLTEXT natural-language match on name and description, ranked by relevance. */
+    NATURAL_LANGUAGE,
+    /** FULLTEXT boolean match requiring every word, each as a prefix ({@code +word*}). */
+    BOOLEAN
+}
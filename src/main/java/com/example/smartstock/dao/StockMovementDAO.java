@@ -0,0 +1,196 @@
+package com.example.smartstock.dao;
+
+import com.example.smartstock.models.StockMovement;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and maintains the {@code stock_movement_daily} rollup (see
+ * {@code db/migration/V3__stock_movement_daily.sql}): one row per product and day with the units
+ * moved in and out, so movement reports never scan the ledger.
+ */
+public class StockMovementDAO extends BaseDAO {
+    private static final String AGGREGATE_COLUMNS =
+        "SELECT product_id, DATE(transaction_date), " +
+        "SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE 0 END), " +
+        "SUM(CASE WHEN transaction_type = 'OUT' THEN quantity ELSE 0 END), " +
+        "COUNT(*) ";
+    private static final String ADD_TO_EXISTING =
+        "ON DUPLICATE KEY UPDATE " +
+        "units_in = stock_movement_daily.units_in + VALUES(units_in), " +
+        "units_out = stock_movement_daily.units_out + VALUES(units_out), " +
+        "transaction_count = stock_movement_daily.transaction_count + VALUES(transaction_count)";
+    
+    private static volatile Boolean rollupAvailable;
+    
+    private final LedgerArchiveDAO ledgerArchiveDAO = new LedgerArchiveDAO();
+    
+    /**
+     * Adds freshly inserted ledger rows to the rollup on the caller's connection, so the totals
+     * commit or roll back together with the postings.
+     */
+    void applyTransactions(Connection conn, List<Integer> transactionIds) throws SQLException {
+        if (transactionIds.isEmpty() || !isRollupAvailable(conn)) {
+            return;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(transactionIds.size(), "?"));
+        String sql = "INSERT INTO stock_movement_daily " +
+                    "(product_id, movement_date, units_in, units_out, transaction_count) " +
+                    AGGREGATE_COLUMNS + "FROM " + LedgerArchiveDAO.HOT_TABLE + " " +
+                    "WHERE transaction_id IN (" + placeholders + ") " +
+                    "GROUP BY product_id, DATE(transaction_date) " +
+                    ADD_TO_EXISTING;
+        
+        try (PreparedStatement stmt = prepare(conn, sql)) {
+            bindParameters(stmt, new ArrayList<>(transactionIds));
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Whether the rollup table exists. Postings skip the rollup until the migration has been
+     * applied, rather than failing. Checked once and then cached.
+     */
+    private boolean isRollupAvailable(Connection conn) throws SQLException {
+        Boolean available = rollupAvailable;
+        if (available != null) {
+            return available;
+        }
+        
+        String sql = "SELECT COUNT(*) FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'stock_movement_daily'";
+        try (PreparedStatement stmt = prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            available = rs.getInt(1) > 0;
+        }
+        rollupAvailable = available;
+        return available;
+    }
+    
+    /**
+     * Recomputes the rollup for the days in [{@code from}, {@code to}) from the ledger. Runs in
+     * one transaction; the INSERT ... SELECT locks the ledger range it reads, so postings made
+     * meanwhile wait and are then added on top instead of being lost or counted twice.
+     *
+     * @return the number of product-days written
+     */
+    public int rebuild(LocalDate from, LocalDate to) throws SQLException {
+        return executeInTransaction(conn -> {
+            rollupAvailable = null;
+            try (PreparedStatement stmt = prepare(conn,
+                    "DELETE FROM stock_movement_daily WHERE movement_date >= ? AND movement_date < ?")) {
+                stmt.setDate(1, Date.valueOf(from));
+                stmt.setDate(2, Date.valueOf(to));
+                stmt.executeUpdate();
+            }
+            
+            // A day split between the hot table and the archive is summed from both.
+            int written = 0;
+            for (String table : ledgerArchiveDAO.tablesFor(conn, from.atStartOfDay(), to.atStartOfDay())) {
+                String sql = "INSERT INTO stock_movement_daily " +
+                            "(product_id, movement_date, units_in, units_out, transaction_count) " +
+                            AGGREGATE_COLUMNS + "FROM " + table + " " +
+                            "WHERE transaction_date >= ? AND transaction_date < ? " +
+                            "GROUP BY product_id, DATE(transaction_date) " +
+                            ADD_TO_EXISTING;
+                try (PreparedStatement stmt = prepare(conn, sql)) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                    stmt.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+                    written += stmt.executeUpdate();
+                }
+            }
+            return written;
+        });
+    }
+    
+    /**
+     * Date of the oldest ledger row, i.e. where a full rebuild has to start.
+     */
+    public Optional<LocalDate> findFirstLedgerDate() throws SQLException {
+        try (Connection conn = getConnection()) {
+            List<String> tables = ledgerArchiveDAO.tablesFor(conn, null, null);
+            // Oldest table first; the first non-empty one holds the oldest row.
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                try (PreparedStatement stmt = prepare(conn,
+                        "SELECT MIN(transaction_date) FROM " + tables.get(i));
+                     ResultSet rs = stmt.executeQuery()) {
+                    
+                    rs.next();
+                    Timestamp first = rs.getTimestamp(1);
+                    if (first != null) {
+                        return Optional.of(first.toLocalDateTime().toLocalDate());
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Units moved per period in [{@code from}, {@code to}), oldest period first. With a
+     * {@code productSku} the rows are for that product; without one they are totals over all
+     * products.
+     *
+     * @param limit maximum number of rows returned
+     */
+    public List<StockMovement> findMovements(String productSku, LocalDate from, LocalDate to,
+                                             MovementGranularity granularity, int limit) throws SQLException {
+        String period = granularity.periodStartExpression();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(period).append(" as period_start, ");
+        if (productSku != null) {
+            sql.append("d.product_id, p.name as product_name, ");
+        } else {
+            sql.append("NULL as product_id, NULL as product_name, ");
+        }
+        sql.append("SUM(d.units_in) as units_in, SUM(d.units_out) as units_out, " +
+                   "SUM(d.transaction_count) as transaction_count " +
+                   "FROM stock_movement_daily d ");
+        if (productSku != null) {
+            sql.append("JOIN products p ON d.product_id = p.product_id ");
+        }
+        sql.append("WHERE d.movement_date >= ? AND d.movement_date < ? ");
+        params.add(Date.valueOf(from));
+        params.add(Date.valueOf(to));
+        if (productSku != null) {
+            sql.append("AND p.sku = ? ");
+            params.add(productSku);
+            sql.append("GROUP BY period_start, d.product_id, p.name ");
+        } else {
+            sql.append("GROUP BY period_start ");
+        }
+        sql.append("ORDER BY period_start LIMIT ?");
+        params.add(limit);
+        
+        List<StockMovement> movements = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql.toString())) {
+            
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    movements.add(mapResultSetToMovement(rs));
+                }
+            }
+        }
+        return movements;
+    }
+    
+    private StockMovement mapResultSetToMovement(ResultSet rs) throws SQLException {
+        StockMovement movement = new StockMovement();
+        movement.setPeriodStart(rs.getDate("period_start").toLocalDate());
+        movement.setProductId(rs.getObject("product_id", Integer.class));
+        movement.setProductName(rs.getString("product_name"));
+        movement.setUnitsIn(rs.getInt("units_in"));
+        movement.setUnitsOut(rs.getInt("units_out"));
+        movement.setTransactionCount(rs.getInt("transaction_count"));
+        return movement;
+    }
+}
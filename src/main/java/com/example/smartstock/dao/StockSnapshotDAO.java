@@ -0,0 +1,193 @@
+package com.example.smartstock.dao;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Point-in-time stock balances from the {@code stock_snapshots} checkpoints (see
+ * {@code db/migration/V4__stock_snapshots.sql}) and the ledger.
+ * <p>
+ * A balance as of time T starts from whichever known balance is closer to T: the latest
+ * checkpoint on or before T, rolled forward over the ledger rows from the checkpoint to T, or
+ * the product's current stock, rolled back over the rows from T to now. Either way only a short
+ * stretch of one product's ledger is read, through the (product_id, transaction_date) index.
+ */
+public class StockSnapshotDAO extends BaseDAO {
+    private static final String SIGNED_QUANTITY =
+        "SUM(CASE WHEN transaction_type = 'IN' THEN quantity ELSE -quantity END)";
+    
+    private final LedgerArchiveDAO ledgerArchiveDAO = new LedgerArchiveDAO();
+    
+    /**
+     * Records every product's balance at the start of {@code snapshotDate}: its current stock
+     * minus the ledger rows dated on or after that day. The INSERT ... SELECT reads products and
+     * ledger with locking reads, so a concurrent posting is either fully in the balance or not
+     * at all. Re-running for the same date replaces the checkpoint. Only the hot ledger table is
+     * read: archiving never reaches into the current month.
+     *
+     * @return the number of products checkpointed
+     */
+    public int checkpoint(LocalDate snapshotDate) throws SQLException {
+        String sql = "INSERT INTO stock_snapshots (product_id, snapshot_date, balance) " +
+                    "SELECT p.product_id, ?, p.current_stock - COALESCE(t.net, 0) " +
+                    "FROM products p " +
+                    "LEFT JOIN (" +
+                    "  SELECT product_id, " + SIGNED_QUANTITY + " as net " +
+                    "  FROM " + LedgerArchiveDAO.HOT_TABLE + " WHERE transaction_date >= ? GROUP BY product_id" +
+                    ") t ON t.product_id = p.product_id " +
+                    "ON DUPLICATE KEY UPDATE balance = VALUES(balance)";
+        
+        return executeInTransaction(conn -> {
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                stmt.setDate(1, Date.valueOf(snapshotDate));
+                stmt.setTimestamp(2, Timestamp.valueOf(snapshotDate.atStartOfDay()));
+                // Rows that already existed count twice in the update count.
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = prepare(conn,
+                    "SELECT COUNT(*) FROM stock_snapshots WHERE snapshot_date = ?")) {
+                stmt.setDate(1, Date.valueOf(snapshotDate));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        });
+    }
+    
+    public Optional<LocalDate> findLatestSnapshotDate() throws SQLException {
+        String sql = "SELECT MAX(snapshot_date) FROM stock_snapshots";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = prepare(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            Date latest = rs.getDate(1);
+            return latest == null ? Optional.empty() : Optional.of(latest.toLocalDate());
+        }
+    }
+    
+    public Optional<Integer> findStockAsOf(Integer productId, LocalDateTime asOf) throws SQLException {
+        return Optional.ofNullable(findStockAsOf(List.of(productId), asOf).get(productId));
+    }
+    
+    /**
+     * Stock of each product as of {@code asOf}. Products that did not exist yet at that time,
+     * or do not exist at all, are absent from the result.
+     */
+    public Map<Integer, Integer> findStockAsOf(List<Integer> productIds, LocalDateTime asOf) throws SQLException {
+        Map<Integer, Integer> balances = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return balances;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection conn = getConnection()) {
+            // Pick the starting balance per product and group products that share a starting point.
+            Map<LocalDate, List<Object>> forwardFrom = new HashMap<>();
+            List<Object> backward = new ArrayList<>();
+            for (BaseBalance base : findBaseBalances(conn, productIds, asOf)) {
+                if (base.createdAt().isAfter(asOf)) {
+                    continue;
+                }
+                LocalDateTime snapshotAt = base.snapshotDate() != null ? base.snapshotDate().atStartOfDay() : null;
+                if (snapshotAt != null &&
+                    Duration.between(snapshotAt, asOf).compareTo(Duration.between(asOf, now)) <= 0) {
+                    balances.put(base.productId(), base.snapshotBalance());
+                    forwardFrom.computeIfAbsent(base.snapshotDate(), d -> new ArrayList<>()).add(base.productId());
+                } else {
+                    balances.put(base.productId(), base.currentStock());
+                    backward.add(base.productId());
+                }
+            }
+            
+            for (Map.Entry<LocalDate, List<Object>> group : forwardFrom.entrySet()) {
+                Map<Integer, Integer> net = sumLedger(conn, group.getValue(), group.getKey().atStartOfDay(), asOf);
+                net.forEach((productId, delta) -> balances.merge(productId, delta, Integer::sum));
+            }
+            if (!backward.isEmpty()) {
+                Map<Integer, Integer> net = sumLedger(conn, backward, asOf, null);
+                net.forEach((productId, delta) -> balances.merge(productId, -delta, Integer::sum));
+            }
+        }
+        return balances;
+    }
+    
+    private List<BaseBalance> findBaseBalances(Connection conn, List<Integer> productIds,
+                                               LocalDateTime asOf) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        String sql = "SELECT p.product_id, p.current_stock, p.created_at, s.snapshot_date, s.balance " +
+                    "FROM products p " +
+                    "LEFT JOIN stock_snapshots s ON s.product_id = p.product_id AND s.snapshot_date = (" +
+                    "  SELECT MAX(s2.snapshot_date) FROM stock_snapshots s2 " +
+                    "  WHERE s2.product_id = p.product_id AND s2.snapshot_date <= ?" +
+                    ") " +
+                    "WHERE p.product_id IN (" + placeholders + ")";
+        
+        List<Object> params = new ArrayList<>();
+        params.add(Date.valueOf(asOf.toLocalDate()));
+        params.addAll(productIds);
+        
+        List<BaseBalance> bases = new ArrayList<>(productIds.size());
+        try (PreparedStatement stmt = prepare(conn, sql)) {
+            bindParameters(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Date snapshotDate = rs.getDate("snapshot_date");
+                    bases.add(new BaseBalance(
+                        rs.getInt("product_id"),
+                        rs.getInt("current_stock"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        snapshotDate != null ? snapshotDate.toLocalDate() : null,
+                        rs.getInt("balance")));
+                }
+            }
+        }
+        return bases;
+    }
+    
+    /**
+     * Net signed quantity per product over ledger rows dated in [{@code from}, {@code to});
+     * {@code to == null} means up to now.
+     */
+    private Map<Integer, Integer> sumLedger(Connection conn, List<Object> productIds,
+                                            LocalDateTime from, LocalDateTime to) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+        List<Object> params = new ArrayList<>(productIds);
+        params.add(Timestamp.valueOf(from));
+        if (to != null) {
+            params.add(Timestamp.valueOf(to));
+        }
+        
+        Map<Integer, Integer> net = new HashMap<>();
+        for (String table : ledgerArchiveDAO.tablesFor(conn, from, to)) {
+            String sql = "SELECT product_id, " + SIGNED_QUANTITY + " as net " +
+                        "FROM " + table + " WHERE product_id IN (" + placeholders + ") " +
+                        "AND transaction_date >= ? " +
+                        (to != null ? "AND transaction_date < ? " : "") +
+                        "GROUP BY product_id";
+            
+            try (PreparedStatement stmt = prepare(conn, sql)) {
+                bindParameters(stmt, params);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        net.merge(rs.getInt("product_id"), rs.getInt("net"), Integer::sum);
+                    }
+                }
+            }
+        }
+        return net;
+    }
+    
+    private record BaseBalance(int productId, int currentStock, LocalDateTime createdAt,
+                               LocalDate snapshotDate, int snapshotBalance) {}
+}
@@ -1,112 +1,313 @@
 package com.example.smartstock.dao;
 
+import com.example.smartstock.cache.ProductCache;
+import com.example.smartstock.metrics.StockPostingEvent;
+import com.example.smartstock.metrics.StockPostingMetrics;
 import com.example.smartstock.models.StockTransaction;
 import com.example.smartstock.models.StockTransaction.TransactionType;
+import com.example.smartstock.service.LowStockTracker;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 public class StockTransactionDAO extends BaseDAO {
     private final ProductDAO productDAO = new ProductDAO();
+    private final StockMovementDAO movementDAO = new StockMovementDAO();
+    private final LedgerArchiveDAO ledgerArchiveDAO = new LedgerArchiveDAO();
     
+    /**
+     * Loads the whole ledger, archived rows included. Views should page through it with
+     * {@link #findPage} instead.
+     */
     public List<StockTransaction> findAll() throws SQLException {
         List<StockTransaction> transactions = new ArrayList<>();
-        String sql = "SELECT st.*, p.name as product_name " +
-                    "FROM stock_transactions st " +
-                    "JOIN products p ON st.product_id = p.product_id " +
-                    "ORDER BY st.transaction_date DESC";
+        try (Connection conn = getConnection()) {
+            // The hot table's rows are all newer than the archive's, so appending keeps the order.
+            for (String table : ledgerArchiveDAO.tablesFor(conn, null, null)) {
+                String sql = "SELECT st.*, p.name as product_name " +
+                            "FROM " + table + " st " +
+                            "JOIN products p ON st.product_id = p.product_id " +
+                            "ORDER BY st.transaction_date DESC";
+                
+                try (PreparedStatement stmt = prepare(conn, sql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    
+                    while (rs.next()) {
+                        transactions.add(mapResultSetToTransaction(rs));
+                    }
+                }
+            }
+        }
+        return transactions;
+    }
+    
+    /**
+     * Returns the page of transactions that follows {@code after}, newest first, ordered by
+     * (transaction_date, transaction_id) descending. Seeking on that key instead of using OFFSET
+     * lets the composite indexes from {@code db/migration/V2__transaction_history_indexes.sql}
+     * serve every page with a short range scan, however long the ledger is.
+     * <p>
+     * Only the ledger tables the filter's date range and the seek key can reach are read. The
+     * hot table is read first and the archive only if the page is not full yet; every archived
+     * row sorts after every hot row, so the page is still in order.
+     *
+     * @param after last transaction of the previous page, or {@code null} for the first page
+     */
+    public List<StockTransaction> findPage(TransactionFilter filter, StockTransaction after,
+                                           int pageSize) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder where = new StringBuilder("WHERE 1 = 1 ");
+        appendFilter(where, params, filter);
+        LocalDateTime upper = filter.to();
+        if (after != null) {
+            Timestamp afterDate = Timestamp.valueOf(after.getTransactionDate());
+            where.append("AND (st.transaction_date < ? OR (st.transaction_date = ? AND st.transaction_id < ?)) ");
+            params.add(afterDate);
+            params.add(afterDate);
+            params.add(after.getTransactionId());
+            // Exclusive bound just past the seek key, for choosing the tables to read.
+            LocalDateTime afterBound = after.getTransactionDate().plusNanos(1);
+            upper = upper == null || afterBound.isBefore(upper) ? afterBound : upper;
+        }
         
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                transactions.add(mapResultSetToTransaction(rs));
+        List<StockTransaction> transactions = new ArrayList<>(pageSize);
+        try (Connection conn = getConnection()) {
+            for (String table : ledgerArchiveDAO.tablesFor(conn, filter.from(), upper)) {
+                if (transactions.size() >= pageSize) {
+                    break;
+                }
+                String sql = "SELECT st.*, p.name as product_name " +
+                            "FROM " + table + " st " +
+                            "JOIN products p ON st.product_id = p.product_id " +
+                            where +
+                            "ORDER BY st.transaction_date DESC, st.transaction_id DESC LIMIT ?";
+                
+                try (PreparedStatement stmt = prepare(conn, sql)) {
+                    List<Object> tableParams = new ArrayList<>(params);
+                    tableParams.add(pageSize - transactions.size());
+                    bindParameters(stmt, tableParams);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            transactions.add(mapResultSetToTransaction(rs));
+                        }
+                    }
+                }
             }
         }
         return transactions;
     }
     
+    /**
+     * Passes every transaction matching {@code filter} to {@code consumer}, newest first, without
+     * holding them in memory: rows are streamed from a forward-only result set, {@code fetchSize}
+     * at a time, from the hot table and then the archive if the filter reaches into it.
+     *
+     * @return the number of transactions passed to {@code consumer}
+     */
+    public int streamAll(TransactionFilter filter, int fetchSize, Consumer<StockTransaction> consumer) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder where = new StringBuilder("WHERE 1 = 1 ");
+        appendFilter(where, params, filter);
+        
+        int count = 0;
+        try (Connection conn = getConnection()) {
+            for (String table : ledgerArchiveDAO.tablesFor(conn, filter.from(), filter.to())) {
+                String sql = "SELECT st.*, p.name as product_name " +
+                            "FROM " + table + " st " +
+                            "JOIN products p ON st.product_id = p.product_id " +
+                            where +
+                            "ORDER BY st.transaction_date DESC, st.transaction_id DESC";
+                
+                try (PreparedStatement stmt = prepare(conn, sql,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    
+                    stmt.setFetchSize(fetchSize);
+                    bindParameters(stmt, params);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            consumer.accept(mapResultSetToTransaction(rs));
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    private static void appendFilter(StringBuilder where, List<Object> params, TransactionFilter filter) {
+        if (filter.from() != null) {
+            where.append("AND st.transaction_date >= ? ");
+            params.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            where.append("AND st.transaction_date < ? ");
+            params.add(Timestamp.valueOf(filter.to()));
+        }
+        if (filter.productSku() != null) {
+            where.append("AND p.sku = ? ");
+            params.add(filter.productSku());
+        }
+        if (filter.type() != null) {
+            where.append("AND st.transaction_type = ? ");
+            params.add(filter.type().name());
+        }
+        if (filter.reference() != null) {
+            where.append("AND st.reference LIKE ? ");
+            params.add(escapeLike(filter.reference()) + "%");
+        }
+    }
+    
+    /**
+     * Posts a transaction: the ledger row and the stock adjustment are written on one connection
+     * in one database transaction. The stock update is a conditional delta, so no prior read of
+     * the product is needed and concurrent postings to the same product cannot lose updates.
+     */
     public StockTransaction save(StockTransaction transaction) throws SQLException {
-        Connection conn = null;
+        saveAll(List.of(transaction));
+        return transaction;
+    }
+    
+    /**
+     * Posts several transactions in one database transaction. Deltas are summed per product so
+     * each product's stock is updated once, and the ledger rows are inserted as a single JDBC
+     * batch and added to the daily movement rollup. Either every line is posted or none is.
+     *
+     * @return the generated transaction IDs, in the order of {@code transactions}
+     */
+    public List<Integer> saveAll(List<StockTransaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        
+        // Sorted by product ID so concurrent multi-line postings lock rows in the same order.
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        for (StockTransaction transaction : transactions) {
+            deltas.merge(transaction.getProductId(), signedQuantity(transaction), Integer::sum);
+        }
+        
+        List<Integer> ids;
+        StockPostingEvent event = new StockPostingEvent();
+        event.begin();
+        long started = System.nanoTime();
+        boolean failed = true;
         try {
-            conn = getConnection();
-            conn.setAutoCommit(false);
-            
-            // Insert transaction
-            String sql = "INSERT INTO stock_transactions (product_id, transaction_type, quantity, reference, notes) " +
-                        "VALUES (?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ids = executeInTransaction(conn -> {
+                for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                    if (delta.getValue() != 0) {
+                        applyStockDelta(conn, delta.getKey(), delta.getValue());
+                    }
+                }
+                List<Integer> inserted = insertTransactions(conn, transactions);
+                movementDAO.applyTransactions(conn, inserted);
+                return inserted;
+            });
+            failed = false;
+        } finally {
+            StockPostingMetrics.getInstance().recordPosting(transactions.size(), System.nanoTime() - started, failed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.lines = transactions.size();
+                event.products = deltas.size();
+                event.failed = failed;
+                event.commit();
+            }
+            // Drop entries a concurrent read may have cached while the transaction was open.
+            ProductCache cache = ProductCache.getInstance();
+            for (Integer productId : deltas.keySet()) {
+                cache.invalidate(productId);
+            }
+        }
+        
+        LowStockTracker.getInstance().stockPosted(deltas, productDAO);
+        return ids;
+    }
+    
+    private List<Integer> insertTransactions(Connection conn, List<StockTransaction> transactions) throws SQLException {
+        String sql = "INSERT INTO stock_transactions (product_id, transaction_type, quantity, reference, notes) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        
+        try (PreparedStatement stmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (StockTransaction transaction : transactions) {
                 stmt.setInt(1, transaction.getProductId());
                 stmt.setString(2, transaction.getTransactionType().name());
                 stmt.setInt(3, transaction.getQuantity());
                 stmt.setString(4, transaction.getReference());
                 stmt.setString(5, transaction.getNotes());
-                
-                stmt.executeUpdate();
-                
-                try (ResultSet keys = stmt.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        transaction.setTransactionId(keys.getInt(1));
-                    }
-                }
+                stmt.addBatch();
             }
             
-            // Update product stock
-            var product = productDAO.findById(transaction.getProductId())
-                .orElseThrow(() -> new SQLException("Product not found"));
+            stmt.executeBatch();
             
-            int newStock = product.getCurrentStock();
-            if (transaction.getTransactionType() == TransactionType.IN) {
-                newStock += transaction.getQuantity();
-            } else {
-                newStock -= transaction.getQuantity();
-                if (newStock < 0) {
-                    throw new SQLException("Insufficient stock");
-                }
-            }
-            
-            productDAO.updateStock(transaction.getProductId(), newStock);
-            
-            conn.commit();
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (StockTransaction transaction : transactions) {
+                    if (!keys.next()) {
+                        // Without every ID the rollup would miss rows; fail so the posting rolls back.
+                        throw new SQLException("Expected " + transactions.size() + " generated transaction IDs, got " +
+                                               ids.size());
+                    }
+                    transaction.setTransactionId(keys.getInt(1));
+                    ids.add(transaction.getTransactionId());
                 }
             }
-            throw e;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+        }
+        return ids;
+    }
+    
+    private void applyStockDelta(Connection conn, Integer productId, int delta) throws SQLException {
+        if (productDAO.adjustStock(conn, productId, delta)) {
+            return;
+        }
+        
+        // Only reached on failure, to report why the conditional update matched no row.
+        String sql = "SELECT current_stock FROM products WHERE product_id = ?";
+        try (PreparedStatement stmt = prepare(conn, sql)) {
+            stmt.setInt(1, productId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Product not found: " + productId);
                 }
+                throw new SQLException("Insufficient stock for product " + productId +
+                                       ". Available: " + rs.getInt("current_stock"));
             }
         }
-        return transaction;
+    }
+    
+    private static String escapeLike(String value) {
+        return value
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+    
+    private static int signedQuantity(StockTransaction transaction) {
+        return transaction.getTransactionType() == TransactionType.IN
+            ? transaction.getQuantity()
+            : -transaction.getQuantity();
     }
     
     public List<StockTransaction> findByProductId(Integer productId) throws SQLException {
         List<StockTransaction> transactions = new ArrayList<>();
-        String sql = "SELECT st.*, p.name as product_name " +
-                    "FROM stock_transactions st " +
-                    "JOIN products p ON st.product_id = p.product_id " +
-                    "WHERE st.product_id = ? " +
-                    "ORDER BY st.transaction_date DESC";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, productId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    transactions.add(mapResultSetToTransaction(rs));
+        try (Connection conn = getConnection()) {
+            for (String table : ledgerArchiveDAO.tablesFor(conn, null, null)) {
+                String sql = "SELECT st.*, p.name as product_name " +
+                            "FROM " + table + " st " +
+                            "JOIN products p ON st.product_id = p.product_id " +
+                            "WHERE st.product_id = ? " +
+                            "ORDER BY st.transaction_date DESC";
+                
+                try (PreparedStatement stmt = prepare(conn, sql)) {
+                    stmt.setInt(1, productId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            transactions.add(mapResultSetToTransaction(rs));
+                        }
+                    }
                 }
             }
         }
@@ -1,5 +1,7 @@
 package com.example.smartstock.dao;
 
+import com.example.smartstock.cache.ProductCache;
+import com.example.smartstock.cache.ReferenceDataCache;
 import com.example.smartstock.models.Supplier;
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,7 +15,7 @@ public class SupplierDAO extends BaseDAO {
         String sql = "SELECT * FROM suppliers ORDER BY name";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = prepare(conn, sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
@@ -27,7 +29,7 @@ public class SupplierDAO extends BaseDAO {
         String sql = "SELECT * FROM suppliers WHERE supplier_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -43,7 +45,7 @@ public class SupplierDAO extends BaseDAO {
         String sql = "INSERT INTO suppliers (name, contact_person, phone, email, address) VALUES (?, ?, ?, ?, ?)";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = prepare(conn, sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, supplier.getName());
             stmt.setString(2, supplier.getContactPerson());
@@ -59,14 +61,21 @@ public class SupplierDAO extends BaseDAO {
                 }
             }
         }
+        ReferenceDataCache.getInstance().invalidate();
         return supplier;
     }
     
+    /**
+     * Writes the supplier if it is still at the version it was read at.
+     *
+     * @throws OptimisticLockException if another user changed or deleted it meanwhile
+     */
     public void update(Supplier supplier) throws SQLException {
-        String sql = "UPDATE suppliers SET name = ?, contact_person = ?, phone = ?, email = ?, address = ? WHERE supplier_id = ?";
+        String sql = "UPDATE suppliers SET name = ?, contact_person = ?, phone = ?, email = ?, address = ?, " +
+                    "version = version + 1 WHERE supplier_id = ? AND version = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setString(1, supplier.getName());
             stmt.setString(2, supplier.getContactPerson());
@@ -74,20 +83,34 @@ public class SupplierDAO extends BaseDAO {
             stmt.setString(4, supplier.getEmail());
             stmt.setString(5, supplier.getAddress());
             stmt.setInt(6, supplier.getSupplierId());
+            stmt.setInt(7, supplier.getVersion());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                throw new OptimisticLockException("Supplier", supplier.getSupplierId(), supplier.getVersion());
+            }
         }
+        supplier.setVersion(supplier.getVersion() + 1);
+        invalidateDependentCaches();
     }
     
     public void delete(Integer id) throws SQLException {
         String sql = "DELETE FROM suppliers WHERE supplier_id = ?";
         
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = prepare(conn, sql)) {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        invalidateDependentCaches();
+    }
+    
+    /**
+     * Products carry the supplier name, so cached products are dropped along with the pick lists.
+     */
+    private static void invalidateDependentCaches() {
+        ReferenceDataCache.getInstance().invalidate();
+        ProductCache.getInstance().clear();
     }
     
     private Supplier mapResultSetToSupplier(ResultSet rs) throws SQLException {
@@ -100,6 +123,7 @@ public class SupplierDAO extends BaseDAO {
         supplier.setAddress(rs.getString("address"));
         supplier.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         supplier.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        supplier.setVersion(rs.getInt("version"));
         return supplier;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.smartstock.dao;
+
+import com.example.smartstock.models.StockTransaction.TransactionType;
+import java.time.LocalDateTime;
+
+/**
+ * Restrictions for paged transaction history queries. A {@code null} component means "any".
+ *
+ * @param from       earliest transaction date, inclusive
+ * @param to         latest transaction date, exclusive
+ * @param productSku exact SKU of the product
+ * @param reference  prefix of the transaction reference
+ */
+public record TransactionFilter(LocalDateTime from, LocalDateTime to, String productSku,
+                                TransactionType type, String reference) {
+    
+    private static final TransactionFilter ALL = new TransactionFilter(null, null, null, null, null);
+    
+    public static TransactionFilter all() {
+        return ALL;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.smartstock.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool used by {@link DatabaseConnection}.
+ * <p>
+ * At most {@code maxSize} physical connections exist at any time; borrowers wait up to
+ * {@code borrowTimeoutMs} for one to become free. Idle connections beyond {@code minSize}
+ * are closed once they have been unused for {@code idleTimeoutMs}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final PoolConfig config;
+    
+    private final Semaphore permits;
+    private final BlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    
+    public ConnectionPool(String url, String username, String password, PoolConfig config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "smartstock-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, config.evictionIntervalMs(),
+            config.evictionIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Opens connections until {@code minSize} idle connections are available.
+     */
+    public void warmUp() throws SQLException {
+        while (!closed && totalConnections.get() < config.minSize()) {
+            idle.offerLast(new PooledEntry(openPhysical()));
+        }
+    }
+    
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        
+        long start = System.nanoTime();
+        waitingThreads.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(config.borrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + config.borrowTimeoutMs() +
+                    " ms waiting for a database connection (" + stats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+        
+        try {
+            PooledEntry entry = takeValidEntry();
+            long waited = System.nanoTime() - start;
+            borrowCount.increment();
+            borrowWaitNanos.add(waited);
+            maxBorrowWaitNanos.accumulateAndGet(waited, Math::max);
+            activeConnections.incrementAndGet();
+            return entry.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    private PooledEntry takeValidEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (!config.validateOnBorrow() || isValid(entry.physical)) {
+                return entry;
+            }
+            validationFailures.increment();
+            discard(entry);
+        }
+        return new PooledEntry(openPhysical());
+    }
+    
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(config.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    private Connection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return connection;
+    }
+    
+    private void release(PooledEntry entry, boolean broken) {
+        activeConnections.decrementAndGet();
+        try {
+            if (broken || closed || entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.lastReturned = System.nanoTime();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private void discard(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.idleTimeoutMs());
+        // The most recently returned connections sit at the head, so walk from the tail.
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > config.minSize()) {
+            PooledEntry entry = it.next();
+            if (entry.lastReturned - cutoff < 0 && idle.removeLastOccurrence(entry)) {
+                evictedCount.increment();
+                discard(entry);
+            }
+        }
+        
+        try {
+            warmUp();
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not restore minimum size: " + e.getMessage());
+        }
+    }
+    
+    public PoolStats stats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(
+            activeConnections.get(),
+            idle.size(),
+            totalConnections.get(),
+            waitingThreads.get(),
+            config.maxSize(),
+            borrows,
+            borrowTimeouts.sum(),
+            createdCount.sum(),
+            evictedCount.sum(),
+            validationFailures.sum(),
+            borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowWaitNanos.sum() / borrows),
+            TimeUnit.NANOSECONDS.toMicros(maxBorrowWaitNanos.get())
+        );
+    }
+    
+    public PoolConfig getConfig() {
+        return config;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+    
+    private final class PooledEntry {
+        private final Connection physical;
+        private volatile long lastReturned = System.nanoTime();
+        
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+        
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LeaseHandler(this));
+        }
+    }
+    
+    /**
+     * Hands out a physical connection until {@code close()} is called, which returns it to the pool
+     * instead of closing it. Calls after close fail like they would on a real closed connection.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+        private boolean broken;
+        
+        private LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+        
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException && isFatal(sqlException)) {
+                    broken = true;
+                }
+                throw cause;
+            }
+        }
+        
+        private boolean isFatal(SQLException e) {
+            String state = e.getSQLState();
+            return state != null && state.startsWith("08");
+        }
+    }
+}
@@ -3,17 +3,23 @@ package com.example.smartstock.db;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
 public class DatabaseConnection {
     private static DatabaseConnection instance;
     private final Properties properties;
+    private final ConnectionPool pool;
     
     private DatabaseConnection() {
         properties = new Properties();
         loadProperties();
+        pool = new ConnectionPool(
+            properties.getProperty("db.url"),
+            properties.getProperty("db.username"),
+            properties.getProperty("db.password"),
+            PoolConfig.fromProperties(properties)
+        );
     }
     
     public static DatabaseConnection getInstance() {
@@ -39,17 +45,32 @@ public class DatabaseConnection {
         }
     }
     
+    /**
+     * Borrows a pooled connection. Closing the returned connection hands it back to the pool.
+     */
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-            properties.getProperty("db.url"),
-            properties.getProperty("db.username"),
-            properties.getProperty("db.password")
-        );
+        return pool.borrow();
+    }
+    
+    /**
+     * Reads an application setting from {@code db.properties}.
+     */
+    public String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+    
+    public PoolStats getPoolStats() {
+        return pool.stats();
     }
     
     public void testConnection() throws SQLException {
+        pool.warmUp();
         try (Connection conn = getConnection()) {
-            System.out.println("Database connection successful!");
+            System.out.println("Database connection successful! Pool: " + pool.stats());
         }
     }
-}
\ No newline at end of file
+    
+    public void shutdown() {
+        pool.close();
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.smartstock.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the scripts in {@code src/main/resources/db/migration} in version order and records
+ * each one in {@code schema_migrations}, so a new database gets the full schema and an existing
+ * one only the scripts it has not run yet.
+ * <p>
+ * Every script is written to be safe to run more than once ({@code IF NOT EXISTS} etc.). That
+ * matters twice: databases set up by hand before this runner existed run all of them once, and
+ * MariaDB commits DDL implicitly, so a script that fails half-way is simply run again in full on
+ * the next start.
+ * <p>
+ * {@code db.migrations} in {@code db.properties} selects what happens at startup: {@code apply}
+ * (default), {@code check} (only report pending scripts and missing indexes) or {@code off}.
+ * The same check is available from the command line via {@link #main(String[])}.
+ */
+public class MigrationRunner {
+    private static final String RESOURCE_DIR = "/db/migration/";
+    // In version order. New scripts must be added here as well as to the resource directory.
+    private static final List<String> SCRIPTS = List.of(
+        "V0__baseline_schema.sql",
+        "V1__product_search_indexes.sql",
+        "V2__transaction_history_indexes.sql",
+        "V3__stock_movement_daily.sql",
+        "V4__stock_snapshots.sql",
+        "V5__stock_transactions_archive.sql",
+        "V6__row_versions.sql",
+        "V7__performance_indexes.sql");
+    
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+        "CREATE\\s+(?:UNIQUE\\s+|FULLTEXT\\s+)?INDEX\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)\\s+ON\\s+(\\w+)",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX = Pattern.compile(
+        "DROP\\s+INDEX\\s+IF\\s+EXISTS\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    
+    private static final String HISTORY_TABLE = "schema_migrations";
+    // Serializes workstations that start at the same time against the same database.
+    private static final String LOCK_NAME = "smartstock.schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    
+    public enum Mode { APPLY, CHECK, OFF }
+    
+    /**
+     * One script: its statements in order and a checksum of its text, used to notice scripts
+     * edited after they were applied.
+     */
+    public record Migration(int version, String description, String script, List<String> statements, String checksum) {}
+    
+    /**
+     * Schema state after a run: scripts not yet applied, expected indexes that do not exist
+     * (as {@code table.index}) and applied scripts whose text has changed since.
+     */
+    public record Report(List<Migration> pending, List<String> missingIndexes, List<String> modified) {
+        
+        public boolean isUpToDate() {
+            return pending.isEmpty() && missingIndexes.isEmpty();
+        }
+        
+        @Override
+        public String toString() {
+            if (isUpToDate() && modified.isEmpty()) {
+                return "Database schema is up to date.";
+            }
+            StringBuilder text = new StringBuilder();
+            for (Migration migration : pending) {
+                text.append("Pending migration: ").append(migration.script()).append('\n');
+            }
+            for (String index : missingIndexes) {
+                text.append("Missing index: ").append(index).append('\n');
+            }
+            for (String script : modified) {
+                text.append("Changed since applied: ").append(script).append('\n');
+            }
+            return text.toString().trim();
+        }
+    }
+    
+    private final DatabaseConnection db;
+    private final List<Migration> migrations;
+    
+    public MigrationRunner() {
+        this(DatabaseConnection.getInstance());
+    }
+    
+    public MigrationRunner(DatabaseConnection db) {
+        this.db = db;
+        this.migrations = loadMigrations();
+    }
+    
+    public List<Migration> getMigrations() {
+        return migrations;
+    }
+    
+    /**
+     * The mode set by {@code db.migrations}, or empty if the value is not apply, check or off.
+     */
+    public Optional<Mode> configuredMode() {
+        String value = db.getProperty("db.migrations", "apply").trim().toUpperCase(Locale.ROOT);
+        for (Mode mode : Mode.values()) {
+            if (mode.name().equals(value)) {
+                return Optional.of(mode);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Runs the configured mode once at startup. An unknown mode is treated as {@code check}, so a
+     * typo neither stops the application nor changes the schema.
+     *
+     * @return a message for the user if the schema is not (or could not be brought) up to date,
+     *         or the configuration is invalid
+     */
+    public Optional<String> runAtStartup() {
+        Optional<Mode> configured = configuredMode();
+        String warning = null;
+        if (configured.isEmpty()) {
+            warning = "Unknown db.migrations value \"" + db.getProperty("db.migrations", "").trim() +
+                      "\" (expected apply, check or off); the schema was only checked.";
+            System.err.println(warning);
+        }
+        Mode mode = configured.orElse(Mode.CHECK);
+        if (mode == Mode.OFF) {
+            return Optional.empty();
+        }
+        
+        String problem;
+        try {
+            Report report = mode == Mode.APPLY ? apply() : check();
+            System.out.println(report);
+            problem = report.isUpToDate() ? null : report.toString();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            problem = "Database migration failed: " + e.getMessage();
+        }
+        if (warning == null || problem == null) {
+            return Optional.ofNullable(warning != null ? warning : problem);
+        }
+        return Optional.of(warning + "\n\n" + problem);
+    }
+    
+    /**
+     * Applies every script not recorded in {@code schema_migrations} yet, in version order,
+     * then re-checks the schema.
+     */
+    public Report apply() throws SQLException {
+        try (Connection conn = db.getConnection()) {
+            acquireLock(conn);
+            try {
+                createHistoryTable(conn);
+                Map<Integer, String> applied = readApplied(conn);
+                for (Migration migration : migrations) {
+                    if (!applied.containsKey(migration.version())) {
+                        applyMigration(conn, migration);
+                    }
+                }
+            } finally {
+                releaseLock(conn);
+            }
+            return inspect(conn);
+        }
+    }
+    
+    /**
+     * Reports pending scripts and missing indexes without changing anything.
+     */
+    public Report check() throws SQLException {
+        try (Connection conn = db.getConnection()) {
+            return inspect(conn);
+        }
+    }
+    
+    private void applyMigration(Connection conn, Migration migration) throws SQLException {
+        long started = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration " + migration.script() + " failed: " + e.getMessage(),
+                                   e.getSQLState(), e.getErrorCode(), e);
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        
+        String sql = "INSERT INTO " + HISTORY_TABLE + " (version, description, checksum, execution_ms) " +
+                    "VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.setString(3, migration.checksum());
+            stmt.setLong(4, elapsedMs);
+            stmt.executeUpdate();
+        }
+        System.out.println("Applied migration " + migration.script() + " in " + elapsedMs + " ms");
+    }
+    
+    private Report inspect(Connection conn) throws SQLException {
+        Map<Integer, String> applied = hasHistoryTable(conn) ? readApplied(conn) : Map.of();
+        List<Migration> pending = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (!checksum.equals(migration.checksum())) {
+                modified.add(migration.script());
+            }
+        }
+        
+        Set<String> existing = readIndexes(conn);
+        List<String> missing = new ArrayList<>();
+        for (String index : expectedIndexes()) {
+            if (!existing.contains(index)) {
+                missing.add(index);
+            }
+        }
+        return new Report(pending, missing, modified);
+    }
+    
+    /**
+     * Indexes the scripts create and do not drop again later, as {@code table.index} in
+     * lower case.
+     */
+    Set<String> expectedIndexes() {
+        Set<String> indexes = new LinkedHashSet<>();
+        for (Migration migration : migrations) {
+            for (String sql : migration.statements()) {
+                Matcher create = CREATE_INDEX.matcher(sql);
+                if (create.lookingAt()) {
+                    indexes.add(indexKey(create.group(2), create.group(1)));
+                }
+                Matcher drop = DROP_INDEX.matcher(sql);
+                if (drop.lookingAt()) {
+                    indexes.remove(indexKey(drop.group(2), drop.group(1)));
+                }
+            }
+        }
+        return indexes;
+    }
+    
+    private static Set<String> readIndexes(Connection conn) throws SQLException {
+        String sql = "SELECT DISTINCT TABLE_NAME, INDEX_NAME FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE()";
+        Set<String> indexes = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                indexes.add(indexKey(rs.getString(1), rs.getString(2)));
+            }
+        }
+        return indexes;
+    }
+    
+    private static String indexKey(String table, String index) {
+        return (table + "." + index).toLowerCase(Locale.ROOT);
+    }
+    
+    private static void createHistoryTable(Connection conn) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (" +
+                    "version INT NOT NULL PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum CHAR(64) NOT NULL, " +
+                    "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "execution_ms BIGINT NOT NULL)";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+    
+    private static boolean hasHistoryTable(Connection conn) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + HISTORY_TABLE + "'";
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+    
+    private static Map<Integer, String> readApplied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT version, checksum FROM " + HISTORY_TABLE);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+    
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another workstation to finish migrating the database");
+                }
+            }
+        }
+    }
+    
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>(SCRIPTS.size());
+        for (String script : SCRIPTS) {
+            Matcher name = SCRIPT_NAME.matcher(script);
+            if (!name.matches()) {
+                throw new IllegalStateException("Invalid migration script name: " + script);
+            }
+            String text = readScript(script);
+            migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                                         script, splitStatements(text), sha256(text)));
+        }
+        return List.copyOf(migrations);
+    }
+    
+    private static String readScript(String script) {
+        try (InputStream input = MigrationRunner.class.getResourceAsStream(RESOURCE_DIR + script)) {
+            if (input == null) {
+                throw new IllegalStateException("Migration script not found on the classpath: " + script);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read migration script " + script, e);
+        }
+    }
+    
+    /**
+     * Splits a script into statements. The scripts keep to a simple format: {@code --} comments
+     * on lines of their own and every statement ending in {@code ;} at the end of a line.
+     */
+    static List<String> splitStatements(String text) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().strip();
+                statements.add(statement.substring(0, statement.length() - 1).strip());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().strip());
+        }
+        return statements;
+    }
+    
+    private static String sha256(String text) {
+        try {
+            // Line endings depend on how the file was checked out, so they do not count as a change.
+            byte[] normalized = text.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(normalized));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Prints the schema report, or applies pending migrations with {@code --apply}. Exits with
+     * status 1 if the schema is not up to date afterwards.
+     */
+    public static void main(String[] args) throws SQLException {
+        boolean apply = args.length > 0 && args[0].equals("--apply");
+        DatabaseConnection db = DatabaseConnection.getInstance();
+        Report report;
+        try {
+            MigrationRunner runner = new MigrationRunner(db);
+            report = apply ? runner.apply() : runner.check();
+        } finally {
+            db.shutdown();
+        }
+        System.out.println(report);
+        if (!report.isUpToDate()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.smartstock.db;
+
+import java.util.Properties;
+
+/**
+ * Connection pool settings, read from the {@code db.pool.*} keys of {@code db.properties}.
+ */
+public record PoolConfig(
+    int minSize,
+    int maxSize,
+    long idleTimeoutMs,
+    long evictionIntervalMs,
+    long borrowTimeoutMs,
+    boolean validateOnBorrow,
+    int validationTimeoutSeconds
+) {
+    
+    public PoolConfig {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("db.pool.maxSize must be at least 1");
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("db.pool.minSize must be between 0 and db.pool.maxSize");
+        }
+    }
+    
+    public static PoolConfig fromProperties(Properties properties) {
+        return new PoolConfig(
+            Integer.parseInt(properties.getProperty("db.pool.minSize", "2")),
+            Integer.parseInt(properties.getProperty("db.pool.maxSize", "10")),
+            Long.parseLong(properties.getProperty("db.pool.idleTimeoutMs", "300000")),
+            Long.parseLong(properties.getProperty("db.pool.evictionIntervalMs", "60000")),
+            Long.parseLong(properties.getProperty("db.pool.borrowTimeoutMs", "5000")),
+            Boolean.parseBoolean(properties.getProperty("db.pool.validateOnBorrow", "true")),
+            Integer.parseInt(properties.getProperty("db.pool.validationTimeoutSeconds", "2"))
+        );
+    }
+}
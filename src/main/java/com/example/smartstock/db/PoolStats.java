@@ -0,0 +1,27 @@
+package com.example.smartstock.db;
+
+/**
+ * Point-in-time view of the connection pool counters. Wait times are in microseconds.
+ */
+public record PoolStats(
+    int active,
+    int idle,
+    int total,
+    int waiting,
+    int maxSize,
+    long borrowCount,
+    long borrowTimeouts,
+    long createdCount,
+    long evictedCount,
+    long validationFailures,
+    long averageWaitMicros,
+    long maxWaitMicros
+) {
+    
+    @Override
+    public String toString() {
+        return "active=" + active + ", idle=" + idle + ", total=" + total + "/" + maxSize +
+               ", waiting=" + waiting + ", avgWait=" + averageWaitMicros + "us" +
+               ", maxWait=" + maxWaitMicros + "us";
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.smartstock.metrics;
+
+/**
+ * JMX view of one cache ({@code com.example.smartstock:type=Cache,name=...}).
+ */
+public interface CacheMXBean {
+    long getHits();
+    long getMisses();
+    long getEvictions();
+    int getSize();
+    int getMaxSize();
+    double getHitRate();
+}
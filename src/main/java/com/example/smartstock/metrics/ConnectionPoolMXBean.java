@@ -0,0 +1,20 @@
+package com.example.smartstock.metrics;
+
+/**
+ * JMX view of the connection pool ({@code com.example.smartstock:type=ConnectionPool}).
+ * Wait times are in microseconds.
+ */
+public interface ConnectionPoolMXBean {
+    int getActiveConnections();
+    int getIdleConnections();
+    int getTotalConnections();
+    int getMaxConnections();
+    int getWaitingThreads();
+    long getBorrowCount();
+    long getBorrowTimeouts();
+    long getCreatedCount();
+    long getEvictedCount();
+    long getValidationFailures();
+    long getAverageWaitMicros();
+    long getMaxWaitMicros();
+}
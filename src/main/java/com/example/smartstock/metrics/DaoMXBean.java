@@ -0,0 +1,31 @@
+package com.example.smartstock.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link DaoMetrics} ({@code com.example.smartstock:type=Dao}). Statement maps are
+ * keyed by DAO method (e.g. {@code ProductDAO.findPage}), DAO maps by DAO class. Counters only
+ * grow while {@code Enabled} is true, which can be switched at runtime.
+ */
+public interface DaoMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    long getSlowQueryMillis();
+    void setSlowQueryMillis(long millis);
+    
+    Map<String, Long> getDaoCalls();
+    Map<String, Double> getDaoTotalMillis();
+    Map<String, Long> getStatementCalls();
+    Map<String, Long> getStatementErrors();
+    Map<String, Long> getStatementRows();
+    Map<String, Double> getStatementMeanMillis();
+    Map<String, Double> getStatementP99Millis();
+    String[] getStatementSummaries();
+    
+    long getConnectionAcquires();
+    double getConnectionAcquireMeanMillis();
+    double getConnectionAcquireMaxMillis();
+    long getConnectionErrors();
+    
+    void resetStatistics();
+}
@@ -0,0 +1,153 @@
+package com.example.smartstock.metrics;
+
+import com.example.smartstock.db.DatabaseConnection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency, row and error counters for every statement the DAOs execute, plus the time spent
+ * waiting for a pooled connection. Statements that take longer than {@code dao.slowQueryMs}
+ * are printed with their bind parameters.
+ * <p>
+ * Both are off by default ({@code dao.metrics.enabled=false}, {@code dao.slowQueryMs=0}). While
+ * they are off, {@code BaseDAO} hands out the driver's statements directly and the only cost is
+ * one volatile read per statement.
+ */
+public class DaoMetrics {
+    private static DaoMetrics instance;
+    
+    private final Map<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final LongAdder connectionErrors = new LongAdder();
+    private volatile boolean collecting;
+    private volatile long slowQueryNanos;
+    
+    private DaoMetrics(boolean collecting, long slowQueryMs) {
+        this.collecting = collecting;
+        this.slowQueryNanos = slowQueryMs * 1_000_000;
+    }
+    
+    public static DaoMetrics getInstance() {
+        if (instance == null) {
+            synchronized (DaoMetrics.class) {
+                if (instance == null) {
+                    DatabaseConnection db = DatabaseConnection.getInstance();
+                    boolean collecting = Boolean.parseBoolean(db.getProperty("dao.metrics.enabled", "false").trim());
+                    long slowQueryMs = Long.parseLong(db.getProperty("dao.slowQueryMs", "0").trim());
+                    instance = new DaoMetrics(collecting, Math.max(0, slowQueryMs));
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Whether statements need to be timed at all, i.e. metrics or the slow-query log are on.
+     */
+    public boolean isActive() {
+        return collecting || slowQueryNanos > 0;
+    }
+    
+    public boolean isCollecting() {
+        return collecting;
+    }
+    
+    public void setCollecting(boolean collecting) {
+        this.collecting = collecting;
+    }
+    
+    public long getSlowQueryMillis() {
+        return slowQueryNanos / 1_000_000;
+    }
+    
+    /**
+     * Sets the slow-query threshold; 0 turns the log off.
+     */
+    public void setSlowQueryMillis(long millis) {
+        this.slowQueryNanos = Math.max(0, millis) * 1_000_000;
+    }
+    
+    public StatementMetrics statement(String name) {
+        return statements.computeIfAbsent(name, StatementMetrics::new);
+    }
+    
+    public void recordConnectionAcquire(long nanos, boolean failed) {
+        if (!collecting) {
+            return;
+        }
+        connectionAcquire.record(nanos);
+        if (failed) {
+            connectionErrors.increment();
+        }
+    }
+    
+    public LatencyHistogram.Snapshot connectionAcquireLatency() {
+        return connectionAcquire.snapshot();
+    }
+    
+    public long connectionErrors() {
+        return connectionErrors.sum();
+    }
+    
+    /**
+     * Counters of every statement executed so far, slowest total time first.
+     */
+    public List<StatementStats> snapshot() {
+        List<StatementStats> stats = new ArrayList<>(statements.size());
+        for (StatementMetrics statement : statements.values()) {
+            stats.add(statement.stats());
+        }
+        stats.sort(Comparator.comparingLong((StatementStats s) -> s.latency().totalNanos()).reversed());
+        return stats;
+    }
+    
+    public void reset() {
+        statements.clear();
+    }
+    
+    /**
+     * Counters for one named statement. Shared by all threads executing it.
+     */
+    public final class StatementMetrics {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        
+        private StatementMetrics(String name) {
+            this.name = name;
+        }
+        
+        public String name() {
+            return name;
+        }
+        
+        /**
+         * Records one execution. {@code parameters} is only evaluated for slow statements.
+         */
+        public void record(long nanos, long rowCount, boolean failed, String sql, Supplier<String> parameters) {
+            if (collecting) {
+                latency.record(nanos);
+                rows.add(rowCount);
+                if (failed) {
+                    errors.increment();
+                }
+            }
+            long threshold = slowQueryNanos;
+            if (threshold > 0 && nanos >= threshold) {
+                System.out.println("Slow query (" + nanos / 1_000_000 + " ms, " + rowCount + " rows" +
+                                   (failed ? ", failed" : "") + ") " + name + ": " +
+                                   sql.replaceAll("\\s+", " ").trim() + " " + parameters.get());
+            }
+        }
+        
+        public StatementStats stats() {
+            return new StatementStats(name, errors.sum(), rows.sum(), latency.snapshot());
+        }
+    }
+}
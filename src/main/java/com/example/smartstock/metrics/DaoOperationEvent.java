@@ -0,0 +1,51 @@
+package com.example.smartstock.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one DAO statement: an update or batch for its whole execution, a query until
+ * its first row is available, with the time spent reading the remaining rows as its fetch time.
+ * Emitted by {@code BaseDAO}'s instrumented statements, so JDBC socket reads in a recording can
+ * be matched to the DAO method they belong to.
+ */
+@Name("smartstock.DaoOperation")
+@Label("DAO Operation")
+@Category({"SmartStock", "Database"})
+@Description("A statement executed by a DAO method")
+public class DaoOperationEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(DaoOperationEvent.class);
+    
+    @Label("Operation")
+    @Description("DAO class and method, e.g. ProductDAO.findPage")
+    public String operation;
+    
+    @Label("SQL")
+    public String sql;
+    
+    @Label("Rows")
+    @Description("Rows read, or rows affected by an update or batch")
+    public long rows;
+    
+    @Label("Fetch Time")
+    @Description("Time spent in ResultSet.next() after the first row, for queries")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fetchTime;
+    
+    @Label("Batch Size")
+    public int batchSize;
+    
+    @Label("Failed")
+    public boolean failed;
+    
+    /**
+     * Whether a running recording has this event enabled.
+     */
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.smartstock.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets: bucket {@code i} counts
+ * samples in [2^i, 2^(i+1)) us, the last one everything from about 18 minutes up. Percentiles
+ * are therefore accurate to within a factor of two, which is enough to tell a 2 ms query from a
+ * 200 ms one at the cost of a few adders per sample.
+ */
+public class LatencyHistogram {
+    static final int BUCKETS = 31;
+    
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+    
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(count.sum(), totalNanos.sum(), maxNanos.get(), counts);
+    }
+    
+    /**
+     * Point-in-time copy of the histogram. Concurrent recording may make the bucket counts and
+     * {@code count} differ slightly.
+     */
+    public record Snapshot(long count, long totalNanos, long maxNanos, long[] bucketCounts) {
+        
+        public double meanMillis() {
+            return count == 0 ? 0.0 : totalNanos / 1_000_000.0 / count;
+        }
+        
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+        
+        /**
+         * Upper bound of the bucket holding the given percentile (0-100), capped at the maximum
+         * seen, in milliseconds.
+         */
+        public double percentileMillis(double percentile) {
+            long total = 0;
+            for (long bucketCount : bucketCounts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Math.min((1L << (i + 1)) / 1000.0, maxMillis());
+                }
+            }
+            return maxMillis();
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("n=%d, mean=%.2fms, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms",
+                                 count, meanMillis(), percentileMillis(50), percentileMillis(95),
+                                 percentileMillis(99), maxMillis());
+        }
+    }
+}
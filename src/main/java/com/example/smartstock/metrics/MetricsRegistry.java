@@ -0,0 +1,383 @@
+package com.example.smartstock.metrics;
+
+import com.example.smartstock.cache.CacheStats;
+import com.example.smartstock.cache.ProductCache;
+import com.example.smartstock.cache.ReferenceDataCache;
+import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.db.PoolStats;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Publishes the application's counters as platform MXBeans under the
+ * {@code com.example.smartstock} domain, for JConsole, VisualVM or any other JMX client:
+ * connection pool, DAO statements, product and reference-data caches, stock postings and FX
+ * thread stalls. The beans read the underlying counters on demand; nothing is copied or
+ * sampled in the background.
+ */
+public class MetricsRegistry {
+    private static final String DOMAIN = "com.example.smartstock";
+    private static MetricsRegistry instance;
+    
+    private final List<ObjectName> registered = new ArrayList<>();
+    
+    private MetricsRegistry() {}
+    
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Registers all beans. Failures are logged and do not affect the application.
+     */
+    public synchronized void register() {
+        if (!registered.isEmpty()) {
+            return;
+        }
+        register("type=ConnectionPool", new ConnectionPool(), ConnectionPoolMXBean.class);
+        register("type=Dao", new Dao(), DaoMXBean.class);
+        register("type=Cache,name=Product", new Cache(() -> ProductCache.getInstance().stats()), CacheMXBean.class);
+        register("type=Cache,name=ReferenceData", new Cache(() -> ReferenceDataCache.getInstance().stats()),
+                 CacheMXBean.class);
+        register("type=StockPostings", new StockPostings(), StockPostingsMXBean.class);
+        register("type=Ui", new Ui(), UiMXBean.class);
+    }
+    
+    public synchronized void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        registered.clear();
+    }
+    
+    private <T> void register(String keys, T bean, Class<T> type) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + keys);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new StandardMBean(bean, type, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private static final class ConnectionPool implements ConnectionPoolMXBean {
+        
+        private static PoolStats stats() {
+            return DatabaseConnection.getInstance().getPoolStats();
+        }
+        
+        @Override
+        public int getActiveConnections() {
+            return stats().active();
+        }
+        
+        @Override
+        public int getIdleConnections() {
+            return stats().idle();
+        }
+        
+        @Override
+        public int getTotalConnections() {
+            return stats().total();
+        }
+        
+        @Override
+        public int getMaxConnections() {
+            return stats().maxSize();
+        }
+        
+        @Override
+        public int getWaitingThreads() {
+            return stats().waiting();
+        }
+        
+        @Override
+        public long getBorrowCount() {
+            return stats().borrowCount();
+        }
+        
+        @Override
+        public long getBorrowTimeouts() {
+            return stats().borrowTimeouts();
+        }
+        
+        @Override
+        public long getCreatedCount() {
+            return stats().createdCount();
+        }
+        
+        @Override
+        public long getEvictedCount() {
+            return stats().evictedCount();
+        }
+        
+        @Override
+        public long getValidationFailures() {
+            return stats().validationFailures();
+        }
+        
+        @Override
+        public long getAverageWaitMicros() {
+            return stats().averageWaitMicros();
+        }
+        
+        @Override
+        public long getMaxWaitMicros() {
+            return stats().maxWaitMicros();
+        }
+    }
+    
+    private static final class Dao implements DaoMXBean {
+        
+        private static DaoMetrics metrics() {
+            return DaoMetrics.getInstance();
+        }
+        
+        @Override
+        public boolean isEnabled() {
+            return metrics().isCollecting();
+        }
+        
+        @Override
+        public void setEnabled(boolean enabled) {
+            metrics().setCollecting(enabled);
+        }
+        
+        @Override
+        public long getSlowQueryMillis() {
+            return metrics().getSlowQueryMillis();
+        }
+        
+        @Override
+        public void setSlowQueryMillis(long millis) {
+            metrics().setSlowQueryMillis(millis);
+        }
+        
+        @Override
+        public Map<String, Long> getDaoCalls() {
+            Map<String, Long> calls = new TreeMap<>();
+            for (StatementStats stats : metrics().snapshot()) {
+                calls.merge(daoName(stats), stats.calls(), Long::sum);
+            }
+            return calls;
+        }
+        
+        @Override
+        public Map<String, Double> getDaoTotalMillis() {
+            Map<String, Double> millis = new TreeMap<>();
+            for (StatementStats stats : metrics().snapshot()) {
+                millis.merge(daoName(stats), stats.latency().totalNanos() / 1_000_000.0, Double::sum);
+            }
+            return millis;
+        }
+        
+        @Override
+        public Map<String, Long> getStatementCalls() {
+            return byStatement(StatementStats::calls);
+        }
+        
+        @Override
+        public Map<String, Long> getStatementErrors() {
+            return byStatement(StatementStats::errors);
+        }
+        
+        @Override
+        public Map<String, Long> getStatementRows() {
+            return byStatement(StatementStats::rows);
+        }
+        
+        @Override
+        public Map<String, Double> getStatementMeanMillis() {
+            return byStatementMillis(stats -> stats.latency().meanMillis());
+        }
+        
+        @Override
+        public Map<String, Double> getStatementP99Millis() {
+            return byStatementMillis(stats -> stats.latency().percentileMillis(99));
+        }
+        
+        @Override
+        public String[] getStatementSummaries() {
+            return metrics().snapshot().stream().map(StatementStats::toString).toArray(String[]::new);
+        }
+        
+        @Override
+        public long getConnectionAcquires() {
+            return metrics().connectionAcquireLatency().count();
+        }
+        
+        @Override
+        public double getConnectionAcquireMeanMillis() {
+            return metrics().connectionAcquireLatency().meanMillis();
+        }
+        
+        @Override
+        public double getConnectionAcquireMaxMillis() {
+            return metrics().connectionAcquireLatency().maxMillis();
+        }
+        
+        @Override
+        public long getConnectionErrors() {
+            return metrics().connectionErrors();
+        }
+        
+        @Override
+        public void resetStatistics() {
+            metrics().reset();
+        }
+        
+        private static String daoName(StatementStats stats) {
+            int dot = stats.name().indexOf('.');
+            return dot < 0 ? stats.name() : stats.name().substring(0, dot);
+        }
+        
+        private static Map<String, Long> byStatement(ToLongFunction<StatementStats> value) {
+            Map<String, Long> values = new TreeMap<>();
+            for (StatementStats stats : metrics().snapshot()) {
+                values.put(stats.name(), value.applyAsLong(stats));
+            }
+            return values;
+        }
+        
+        private static Map<String, Double> byStatementMillis(ToDoubleFunction<StatementStats> value) {
+            Map<String, Double> values = new TreeMap<>();
+            for (StatementStats stats : metrics().snapshot()) {
+                values.put(stats.name(), value.applyAsDouble(stats));
+            }
+            return values;
+        }
+    }
+    
+    private static final class Cache implements CacheMXBean {
+        private final Supplier<CacheStats> stats;
+        
+        private Cache(Supplier<CacheStats> stats) {
+            this.stats = stats;
+        }
+        
+        @Override
+        public long getHits() {
+            return stats.get().hits();
+        }
+        
+        @Override
+        public long getMisses() {
+            return stats.get().misses();
+        }
+        
+        @Override
+        public long getEvictions() {
+            return stats.get().evictions();
+        }
+        
+        @Override
+        public int getSize() {
+            return stats.get().size();
+        }
+        
+        @Override
+        public int getMaxSize() {
+            return stats.get().maxSize();
+        }
+        
+        @Override
+        public double getHitRate() {
+            return stats.get().hitRate();
+        }
+    }
+    
+    private static final class StockPostings implements StockPostingsMXBean {
+        
+        private static StockPostingMetrics metrics() {
+            return StockPostingMetrics.getInstance();
+        }
+        
+        @Override
+        public long getPostings() {
+            return metrics().postings();
+        }
+        
+        @Override
+        public long getLinesPosted() {
+            return metrics().linesPosted();
+        }
+        
+        @Override
+        public double getLinesPerSecond() {
+            return metrics().linesPerSecond();
+        }
+        
+        @Override
+        public long getFailures() {
+            return metrics().failures();
+        }
+        
+        @Override
+        public double getMeanMillis() {
+            return metrics().latency().meanMillis();
+        }
+        
+        @Override
+        public double getP99Millis() {
+            return metrics().latency().percentileMillis(99);
+        }
+    }
+    
+    private static final class Ui implements UiMXBean {
+        
+        private static UiMetrics metrics() {
+            return UiMetrics.getInstance();
+        }
+        
+        @Override
+        public long getStallCount() {
+            return metrics().stallCount();
+        }
+        
+        @Override
+        public long getStalledMillis() {
+            return metrics().stalledMillis();
+        }
+        
+        @Override
+        public double getMaxStallMillis() {
+            return metrics().stalls().maxMillis();
+        }
+        
+        @Override
+        public double getHeartbeatP50Millis() {
+            return metrics().heartbeatDelay().percentileMillis(50);
+        }
+        
+        @Override
+        public double getHeartbeatP99Millis() {
+            return metrics().heartbeatDelay().percentileMillis(99);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.smartstock.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Events per second over the last minute, from one counter per wall-clock second. A slot is
+ * reused once its second has left the window; the reset is not atomic with concurrent marks in
+ * the same new second, which can lose a few events from the rate (never from {@link #total()}).
+ */
+public class RateMeter {
+    private static final int WINDOW_SECONDS = 60;
+    
+    private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+    private final LongAdder total = new LongAdder();
+    
+    public void mark(long events) {
+        total.add(events);
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            counts.set(slot, 0);
+        }
+        counts.addAndGet(slot, events);
+    }
+    
+    /**
+     * Average rate over the last full minute, excluding the current, partial second.
+     */
+    public double perSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long events = 0;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            long second = seconds.get(slot);
+            if (second < now && second >= now - WINDOW_SECONDS) {
+                events += counts.get(slot);
+            }
+        }
+        return (double) events / WINDOW_SECONDS;
+    }
+    
+    public long total() {
+        return total.sum();
+    }
+}
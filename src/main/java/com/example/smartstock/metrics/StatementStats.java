@@ -0,0 +1,22 @@
+package com.example.smartstock.metrics;
+
+/**
+ * Point-in-time view of one DAO statement's counters. {@code name} is the DAO class and method
+ * that prepared the statement, e.g. {@code ProductDAO.findPage}.
+ */
+public record StatementStats(
+    String name,
+    long errors,
+    long rows,
+    LatencyHistogram.Snapshot latency
+) {
+    
+    public long calls() {
+        return latency.count();
+    }
+    
+    @Override
+    public String toString() {
+        return name + ": " + latency + ", rows=" + rows + ", errors=" + errors;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.smartstock.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one stock posting ({@code StockTransactionDAO.saveAll}): the database
+ * transaction that writes the ledger lines, adjusts stock and updates the movement rollup.
+ */
+@Name("smartstock.StockPosting")
+@Label("Stock Posting")
+@Category({"SmartStock", "Inventory"})
+@Description("Ledger lines posted in one database transaction")
+public class StockPostingEvent extends jdk.jfr.Event {
+    
+    @Label("Lines")
+    public int lines;
+    
+    @Label("Products")
+    public int products;
+    
+    @Label("Failed")
+    public boolean failed;
+}
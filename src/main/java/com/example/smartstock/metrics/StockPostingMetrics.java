@@ -0,0 +1,58 @@
+package com.example.smartstock.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for stock postings through {@code StockTransactionDAO.saveAll}: ledger lines posted,
+ * the rate of the last minute, how long each posting's database transaction took and how many
+ * failed. Always on; recording is a handful of adder increments per posting.
+ */
+public class StockPostingMetrics {
+    private static StockPostingMetrics instance;
+    
+    private final RateMeter lines = new RateMeter();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    
+    private StockPostingMetrics() {}
+    
+    public static StockPostingMetrics getInstance() {
+        if (instance == null) {
+            synchronized (StockPostingMetrics.class) {
+                if (instance == null) {
+                    instance = new StockPostingMetrics();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public void recordPosting(int lineCount, long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            failures.increment();
+        } else {
+            lines.mark(lineCount);
+        }
+    }
+    
+    public long postings() {
+        return latency.snapshot().count();
+    }
+    
+    public long linesPosted() {
+        return lines.total();
+    }
+    
+    public double linesPerSecond() {
+        return lines.perSecond();
+    }
+    
+    public long failures() {
+        return failures.sum();
+    }
+    
+    public LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+}
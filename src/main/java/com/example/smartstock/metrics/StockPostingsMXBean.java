@@ -0,0 +1,13 @@
+package com.example.smartstock.metrics;
+
+/**
+ * JMX view of {@link StockPostingMetrics} ({@code com.example.smartstock:type=StockPostings}).
+ */
+public interface StockPostingsMXBean {
+    long getPostings();
+    long getLinesPosted();
+    double getLinesPerSecond();
+    long getFailures();
+    double getMeanMillis();
+    double getP99Millis();
+}
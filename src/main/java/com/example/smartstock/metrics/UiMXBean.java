@@ -0,0 +1,12 @@
+package com.example.smartstock.metrics;
+
+/**
+ * JMX view of {@link UiMetrics} ({@code com.example.smartstock:type=Ui}).
+ */
+public interface UiMXBean {
+    long getStallCount();
+    long getStalledMillis();
+    double getMaxStallMillis();
+    double getHeartbeatP50Millis();
+    double getHeartbeatP99Millis();
+}
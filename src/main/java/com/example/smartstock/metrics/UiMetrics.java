@@ -0,0 +1,49 @@
+package com.example.smartstock.metrics;
+
+/**
+ * Responsiveness of the JavaFX application thread, as measured by {@code FxStallWatchdog}: how long
+ * heartbeats waited to run, and how many waited longer than the stall threshold.
+ */
+public class UiMetrics {
+    private static UiMetrics instance;
+    
+    private final LatencyHistogram heartbeatDelay = new LatencyHistogram();
+    private final LatencyHistogram stalls = new LatencyHistogram();
+    
+    private UiMetrics() {}
+    
+    public static UiMetrics getInstance() {
+        if (instance == null) {
+            synchronized (UiMetrics.class) {
+                if (instance == null) {
+                    instance = new UiMetrics();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public void recordHeartbeat(long delayNanos) {
+        heartbeatDelay.record(delayNanos);
+    }
+    
+    public void recordStall(long durationNanos) {
+        stalls.record(durationNanos);
+    }
+    
+    public long stallCount() {
+        return stalls.snapshot().count();
+    }
+    
+    public long stalledMillis() {
+        return stalls.snapshot().totalNanos() / 1_000_000;
+    }
+    
+    public LatencyHistogram.Snapshot heartbeatDelay() {
+        return heartbeatDelay.snapshot();
+    }
+    
+    public LatencyHistogram.Snapshot stalls() {
+        return stalls.snapshot();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.smartstock.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for building a view ({@code show}) or loading its data ({@code load}). A load
+ * starts on the JavaFX application thread when the work is handed to the background, and ends
+ * once the result has been applied back on that thread, so it covers the queries, the wait for
+ * a pulse and the table update.
+ */
+@Name("smartstock.ViewLoad")
+@Label("View Load")
+@Category({"SmartStock", "UI"})
+@Description("A controller building a view or loading data into it")
+public class ViewLoadEvent extends jdk.jfr.Event {
+    
+    @Label("View")
+    @Description("Controller and method, e.g. CategoryController.loadCategories")
+    public String view;
+    
+    @Label("Phase")
+    @Description("show or load")
+    public String phase;
+    
+    @Label("Failed")
+    public boolean failed;
+    
+    /**
+     * Runs {@code show} inside a {@code show} event for {@code view}.
+     */
+    public static void show(String view, Runnable show) {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            show.run();
+            failed = false;
+        } finally {
+            event.finish(view, "show", failed);
+        }
+    }
+    
+    /**
+     * Ends an event started with {@link #begin()} and commits it if the recording wants it.
+     */
+    public void finish(String view, String phase, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.view = view;
+            this.phase = phase;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -8,6 +8,7 @@ public class Category {
     private String description;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private int version;
     
     public Category() {}
     
@@ -33,6 +34,9 @@ public class Category {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     @Override
     public String toString() {
         return name;
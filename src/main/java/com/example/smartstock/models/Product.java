@@ -2,6 +2,10 @@ package com.example.smartstock.models;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 
 public class Product {
     private Integer productId;
@@ -15,6 +19,9 @@ public class Product {
     private Integer minimumStock;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private int version;
+    // Editable fields set to a new value since the product was loaded or last saved.
+    private final EnumSet<Field> dirtyFields = EnumSet.noneOf(Field.class);
     
     // For display purposes
     private String categoryName;
@@ -26,33 +33,66 @@ public class Product {
         this.minimumStock = 0;
     }
     
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.name = other.name;
+        this.description = other.description;
+        this.sku = other.sku;
+        this.categoryId = other.categoryId;
+        this.supplierId = other.supplierId;
+        this.unitPrice = other.unitPrice;
+        this.currentStock = other.currentStock;
+        this.minimumStock = other.minimumStock;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.version = other.version;
+        this.dirtyFields.addAll(other.dirtyFields);
+        this.categoryName = other.categoryName;
+        this.supplierName = other.supplierName;
+    }
+    
     // Getters and Setters
     public Integer getProductId() { return productId; }
     public void setProductId(Integer productId) { this.productId = productId; }
     
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { markDirty(Field.NAME, this.name, name); this.name = name; }
     
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) {
+        markDirty(Field.DESCRIPTION, this.description, description);
+        this.description = description;
+    }
     
     public String getSku() { return sku; }
-    public void setSku(String sku) { this.sku = sku; }
+    public void setSku(String sku) { markDirty(Field.SKU, this.sku, sku); this.sku = sku; }
     
     public Integer getCategoryId() { return categoryId; }
-    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+    public void setCategoryId(Integer categoryId) {
+        markDirty(Field.CATEGORY, this.categoryId, categoryId);
+        this.categoryId = categoryId;
+    }
     
     public Integer getSupplierId() { return supplierId; }
-    public void setSupplierId(Integer supplierId) { this.supplierId = supplierId; }
+    public void setSupplierId(Integer supplierId) {
+        markDirty(Field.SUPPLIER, this.supplierId, supplierId);
+        this.supplierId = supplierId;
+    }
     
     public BigDecimal getUnitPrice() { return unitPrice; }
-    public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+    public void setUnitPrice(BigDecimal unitPrice) {
+        markDirty(Field.UNIT_PRICE, this.unitPrice, unitPrice);
+        this.unitPrice = unitPrice;
+    }
     
     public Integer getCurrentStock() { return currentStock; }
     public void setCurrentStock(Integer currentStock) { this.currentStock = currentStock; }
     
     public Integer getMinimumStock() { return minimumStock; }
-    public void setMinimumStock(Integer minimumStock) { this.minimumStock = minimumStock; }
+    public void setMinimumStock(Integer minimumStock) {
+        markDirty(Field.MINIMUM_STOCK, this.minimumStock, minimumStock);
+        this.minimumStock = minimumStock;
+    }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -60,6 +100,9 @@ public class Product {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     public String getCategoryName() { return categoryName; }
     public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
     
@@ -69,4 +112,79 @@ public class Product {
     public boolean isLowStock() {
         return currentStock <= minimumStock;
     }
+    
+    /**
+     * The editable fields set to a different value since the product was loaded or last saved.
+     */
+    public Set<Field> getDirtyFields() {
+        return Collections.unmodifiableSet(EnumSet.copyOf(dirtyFields));
+    }
+    
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+    
+    /**
+     * Called by the DAO once the product's values match the database.
+     */
+    public void markClean() {
+        dirtyFields.clear();
+    }
+    
+    private void markDirty(Field field, Object oldValue, Object newValue) {
+        if (!Field.sameValue(field, oldValue, newValue)) {
+            dirtyFields.add(field);
+        }
+    }
+    
+    /**
+     * The fields a user edits in the product form, for comparing and merging two versions of a
+     * product. Stock is not one of them: it only changes through stock transactions.
+     */
+    public enum Field {
+        NAME, DESCRIPTION, SKU, CATEGORY, SUPPLIER, UNIT_PRICE, MINIMUM_STOCK;
+        
+        public Object get(Product product) {
+            return switch (this) {
+                case NAME -> product.getName();
+                case DESCRIPTION -> product.getDescription();
+                case SKU -> product.getSku();
+                case CATEGORY -> product.getCategoryId();
+                case SUPPLIER -> product.getSupplierId();
+                case UNIT_PRICE -> product.getUnitPrice();
+                case MINIMUM_STOCK -> product.getMinimumStock();
+            };
+        }
+        
+        public void copy(Product from, Product to) {
+            switch (this) {
+                case NAME -> to.setName(from.getName());
+                case DESCRIPTION -> to.setDescription(from.getDescription());
+                case SKU -> to.setSku(from.getSku());
+                case CATEGORY -> to.setCategoryId(from.getCategoryId());
+                case SUPPLIER -> to.setSupplierId(from.getSupplierId());
+                case UNIT_PRICE -> to.setUnitPrice(from.getUnitPrice());
+                case MINIMUM_STOCK -> to.setMinimumStock(from.getMinimumStock());
+            }
+        }
+        
+        /**
+         * Whether the field holds a different value in {@code a} and {@code b}. Prices are
+         * compared by value, not scale, and a blank text field equals a missing one.
+         */
+        public boolean differs(Product a, Product b) {
+            return !sameValue(this, get(a), get(b));
+        }
+        
+        private static boolean sameValue(Field field, Object left, Object right) {
+            if (left instanceof BigDecimal l && right instanceof BigDecimal r) {
+                return l.compareTo(r) == 0;
+            }
+            if (field == NAME || field == DESCRIPTION || field == SKU) {
+                left = left == null || ((String) left).isEmpty() ? null : left;
+                right = right == null || ((String) right).isEmpty() ? null : right;
+            }
+            return Objects.equals(left, right);
+        }
+    }
 }
\ No newline at end of file
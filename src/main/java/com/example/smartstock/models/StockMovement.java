@@ -0,0 +1,41 @@
+package com.example.smartstock.models;
+
+import java.time.LocalDate;
+
+/**
+ * Units moved in and out during one period, for one product or (when {@code productId} is
+ * {@code null}) for all products together.
+ */
+public class StockMovement {
+    private LocalDate periodStart;
+    private Integer productId;
+    private String productName;
+    private int unitsIn;
+    private int unitsOut;
+    private int transactionCount;
+    
+    public StockMovement() {}
+    
+    // Getters and Setters
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    
+    public Integer getProductId() { return productId; }
+    public void setProductId(Integer productId) { this.productId = productId; }
+    
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    
+    public int getUnitsIn() { return unitsIn; }
+    public void setUnitsIn(int unitsIn) { this.unitsIn = unitsIn; }
+    
+    public int getUnitsOut() { return unitsOut; }
+    public void setUnitsOut(int unitsOut) { this.unitsOut = unitsOut; }
+    
+    public int getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(int transactionCount) { this.transactionCount = transactionCount; }
+    
+    public int getNetChange() {
+        return unitsIn - unitsOut;
+    }
+}
@@ -11,6 +11,7 @@ public class Supplier {
     private String address;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private int version;
     
     public Supplier() {}
     
@@ -49,6 +50,9 @@ public class Supplier {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     @Override
     public String toString() {
         return name;
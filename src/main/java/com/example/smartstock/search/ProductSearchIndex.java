@@ -0,0 +1,414 @@
+package com.example.smartstock.search;
+
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.dao.ProductFilter;
+import com.example.smartstock.models.Product;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, SKU and description.
+ * <p>
+ * Queries of three or more characters are answered from a trigram index: the posting lists of
+ * the query's trigrams are intersected, and the few remaining candidates are checked with a
+ * plain substring match. Shorter queries fall back to a prefix lookup on the words of the name
+ * and SKU. Results are ranked so exact and prefix SKU/name matches come first.
+ * <p>
+ * The index holds only product IDs and lower-cased text; callers load the matching rows by ID.
+ */
+public class ProductSearchIndex {
+    private static final int BUILD_FETCH_SIZE = 1000;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private static ProductSearchIndex instance;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    // Changes that arrive while build() is running, replayed onto the new segment before it is swapped in.
+    private List<Product> pendingUpdates;
+    private Set<Integer> pendingRemovals;
+    private volatile boolean ready;
+    
+    private ProductSearchIndex() {}
+    
+    public static ProductSearchIndex getInstance() {
+        if (instance == null) {
+            synchronized (ProductSearchIndex.class) {
+                if (instance == null) {
+                    instance = new ProductSearchIndex();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Indexes the whole catalog. Until this has completed once, {@link #isReady()} is false and
+     * callers should search the database instead.
+     */
+    public void build(ProductDAO productDAO) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+            pendingRemovals = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Segment fresh = new Segment();
+        try {
+            productDAO.streamAll(ProductFilter.all(), BUILD_FETCH_SIZE, fresh::load);
+            fresh.seal();
+        } catch (SQLException | RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = null;
+                pendingRemovals = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            for (Integer productId : pendingRemovals) {
+                fresh.remove(productId);
+            }
+            for (Product product : pendingUpdates) {
+                fresh.put(product);
+            }
+            pendingUpdates = null;
+            pendingRemovals = null;
+            segment = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds or replaces the entry for {@code product}.
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            segment.put(product);
+            if (pendingUpdates != null) {
+                pendingRemovals.remove(product.getProductId());
+                pendingUpdates.add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Integer productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+            if (pendingUpdates != null) {
+                pendingUpdates.removeIf(p -> p.getProductId().equals(productId));
+                pendingRemovals.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the IDs of up to {@code limit} products whose name, SKU or description contains
+     * {@code query} (or, for queries shorter than three characters, has a word starting with it),
+     * best matches first.
+     */
+    public List<Integer> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<Document> matches = q.length() >= 3 ? segment.substringMatches(q) : segment.prefixMatches(q);
+            List<Integer> ids = new ArrayList<>(Math.min(limit, matches.size()));
+            matches.stream()
+                .map(doc -> new Hit(doc, score(doc, q)))
+                .filter(hit -> hit.score > 0)
+                .sorted(Comparator.comparingInt((Hit hit) -> hit.score).reversed()
+                    .thenComparing(hit -> hit.doc.name)
+                    .thenComparingInt(hit -> hit.doc.productId))
+                .limit(limit)
+                .forEach(hit -> ids.add(hit.doc.productId));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int score(Document doc, String q) {
+        if (doc.sku.equals(q)) return 1000;
+        if (doc.sku.startsWith(q)) return 500;
+        if (doc.name.startsWith(q)) return 400;
+        if (doc.name.contains(" " + q)) return 300;
+        if (doc.name.contains(q)) return 200;
+        if (doc.sku.contains(q)) return 150;
+        if (doc.description.contains(q)) return 50;
+        return 0;
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private record Hit(Document doc, int score) {}
+    
+    private static final class Document {
+        private final int productId;
+        private final String name;
+        private final String sku;
+        private final String description;
+        
+        private Document(Product product) {
+            this.productId = product.getProductId();
+            this.name = normalize(product.getName());
+            this.sku = normalize(product.getSku());
+            this.description = normalize(product.getDescription());
+        }
+        
+        private Set<String> trigrams() {
+            Set<String> grams = new HashSet<>();
+            addTrigrams(grams, name);
+            addTrigrams(grams, sku);
+            addTrigrams(grams, description);
+            return grams;
+        }
+        
+        /**
+         * One- and two-character prefixes of the words in name and SKU, which is all a query too
+         * short for trigrams is matched against.
+         */
+        private Set<String> wordPrefixes() {
+            Set<String> prefixes = new HashSet<>();
+            for (String field : new String[] { name, sku }) {
+                for (String word : WORD_SEPARATOR.split(field)) {
+                    if (!word.isEmpty()) {
+                        prefixes.add(word.substring(0, 1));
+                    }
+                    if (word.length() >= 2) {
+                        prefixes.add(word.substring(0, 2));
+                    }
+                }
+            }
+            return prefixes;
+        }
+        
+        private static void addTrigrams(Set<String> grams, String text) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+        }
+    }
+    
+    /**
+     * One complete set of index structures. {@link #build} fills a new segment off to the side
+     * and swaps it in, so searches keep using the old one meanwhile.
+     */
+    private static final class Segment {
+        private final Map<Integer, Document> documents = new HashMap<>();
+        private final Map<String, IntList> trigramPostings = new HashMap<>();
+        private final Map<String, IntList> prefixPostings = new HashMap<>();
+        
+        private void put(Product product) {
+            remove(product.getProductId());
+            Document doc = new Document(product);
+            documents.put(doc.productId, doc);
+            for (String gram : doc.trigrams()) {
+                trigramPostings.computeIfAbsent(gram, k -> new IntList()).add(doc.productId);
+            }
+            for (String prefix : doc.wordPrefixes()) {
+                prefixPostings.computeIfAbsent(prefix, k -> new IntList()).add(doc.productId);
+            }
+        }
+        
+        /**
+         * Bulk-load variant of {@link #put} for a new segment: the catalog streams in name order,
+         * so postings are appended unsorted and {@link #seal} sorts each list once at the end.
+         */
+        private void load(Product product) {
+            Document doc = new Document(product);
+            documents.put(doc.productId, doc);
+            for (String gram : doc.trigrams()) {
+                trigramPostings.computeIfAbsent(gram, k -> new IntList()).append(doc.productId);
+            }
+            for (String prefix : doc.wordPrefixes()) {
+                prefixPostings.computeIfAbsent(prefix, k -> new IntList()).append(doc.productId);
+            }
+        }
+        
+        private void seal() {
+            for (IntList list : trigramPostings.values()) {
+                list.sort();
+            }
+            for (IntList list : prefixPostings.values()) {
+                list.sort();
+            }
+        }
+        
+        private void remove(Integer productId) {
+            Document doc = documents.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            for (String gram : doc.trigrams()) {
+                removePosting(trigramPostings, gram, doc.productId);
+            }
+            for (String prefix : doc.wordPrefixes()) {
+                removePosting(prefixPostings, prefix, doc.productId);
+            }
+        }
+        
+        private static void removePosting(Map<String, IntList> postings, String key, int productId) {
+            IntList list = postings.get(key);
+            if (list != null) {
+                list.remove(productId);
+                if (list.size() == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+        
+        private List<Document> substringMatches(String q) {
+            Set<String> grams = new HashSet<>();
+            Document.addTrigrams(grams, q);
+            
+            List<IntList> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                IntList list = trigramPostings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+            
+            // Walk the rarest trigram's postings; the others only need membership checks.
+            IntList smallest = lists.get(0);
+            List<Document> matches = new ArrayList<>();
+            candidates:
+            for (int i = 0; i < smallest.size(); i++) {
+                int productId = smallest.get(i);
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(productId)) {
+                        continue candidates;
+                    }
+                }
+                Document doc = documents.get(productId);
+                if (doc.name.contains(q) || doc.sku.contains(q) || doc.description.contains(q)) {
+                    matches.add(doc);
+                }
+            }
+            return matches;
+        }
+        
+        private List<Document> prefixMatches(String q) {
+            IntList list = prefixPostings.get(q);
+            if (list == null) {
+                return List.of();
+            }
+            List<Document> matches = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                matches.add(documents.get(list.get(i)));
+            }
+            return matches;
+        }
+    }
+    
+    /**
+     * Sorted set of product IDs backed by a growable int array. {@link #append} is only used while
+     * a segment is being loaded, followed by {@link #sort}.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        private int size() {
+            return size;
+        }
+        
+        private int get(int index) {
+            return values[index];
+        }
+        
+        private boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+        
+        private void add(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+        
+        private void append(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        /**
+         * Sorts the appended values and drops duplicates.
+         */
+        private void sort() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            size = distinct;
+        }
+        
+        private void remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.dao.ProductFilter;
+import com.example.smartstock.dao.StockTransactionDAO;
+import com.example.smartstock.dao.TransactionFilter;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.StockTransaction;
+import com.example.smartstock.util.CsvWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports products or stock transactions as CSV or JSON, optionally gzip-compressed. Rows are
+ * streamed from the database straight into a buffered writer on a {@link FileChannel}, so
+ * exports of any size run in constant memory. Product CSV files use the columns the CSV import
+ * reads, so an export can be edited and imported again.
+ */
+public class ExportService {
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1000;
+    
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+        "product_id", "name", "sku", "description", "category", "supplier",
+        "unit_price", "current_stock", "minimum_stock");
+    private static final List<String> TRANSACTION_COLUMNS = List.of(
+        "transaction_id", "transaction_date", "product_id", "product_name",
+        "transaction_type", "quantity", "reference", "notes");
+    
+    public enum Format { CSV, JSON }
+    
+    @FunctionalInterface
+    public interface Progress {
+        /**
+         * @param totalRows the number of rows to export, or -1 if not known in advance
+         */
+        void update(long rowsWritten, long totalRows);
+    }
+    
+    private final ProductDAO productDAO;
+    private final StockTransactionDAO transactionDAO;
+    
+    public ExportService(ProductDAO productDAO, StockTransactionDAO transactionDAO) {
+        this.productDAO = productDAO;
+        this.transactionDAO = transactionDAO;
+    }
+    
+    /**
+     * The format implied by a file name: {@code .json} or {@code .json.gz} for JSON, CSV
+     * otherwise. Compression is implied by a {@code .gz} suffix.
+     */
+    public static Format formatFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".json.gz") ? Format.JSON : Format.CSV;
+    }
+    
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+    
+    /**
+     * Exports the whole catalog in name order. Blocks on the database, so it must not be called
+     * on the JavaFX application thread. If the calling thread is interrupted the export stops
+     * with a {@link CancellationException} and the partial file is deleted.
+     *
+     * @return the number of products written
+     */
+    public long exportProducts(Path file, Format format, boolean gzip, Progress progress)
+            throws IOException, SQLException {
+        long total = productDAO.count(ProductFilter.all());
+        return export(file, format, gzip, PRODUCT_COLUMNS, (rows, out) ->
+            productDAO.streamAll(ProductFilter.all(), FETCH_SIZE, product -> rows.write(out, productRecord(product))),
+            progress, total);
+    }
+    
+    /**
+     * Exports the transactions matching {@code filter}, newest first. Otherwise as
+     * {@link #exportProducts}.
+     *
+     * @return the number of transactions written
+     */
+    public long exportTransactions(Path file, TransactionFilter filter, Format format, boolean gzip,
+                                   Progress progress) throws IOException, SQLException {
+        return export(file, format, gzip, TRANSACTION_COLUMNS, (rows, out) ->
+            transactionDAO.streamAll(filter, FETCH_SIZE, transaction -> rows.write(out, transactionRecord(transaction))),
+            progress, -1);
+    }
+    
+    private static List<Object> productRecord(Product product) {
+        return Arrays.asList(product.getProductId(), product.getName(), product.getSku(),
+                             product.getDescription(), product.getCategoryName(), product.getSupplierName(),
+                             product.getUnitPrice(), product.getCurrentStock(), product.getMinimumStock());
+    }
+    
+    private static List<Object> transactionRecord(StockTransaction transaction) {
+        return Arrays.asList(transaction.getTransactionId(), transaction.getTransactionDate().toString(),
+                             transaction.getProductId(), transaction.getProductName(),
+                             transaction.getTransactionType().name(), transaction.getQuantity(),
+                             transaction.getReference(), transaction.getNotes());
+    }
+    
+    @FunctionalInterface
+    private interface RowSource {
+        void stream(RowCounter rows, RecordWriter out) throws SQLException;
+    }
+    
+    private long export(Path file, Format format, boolean gzip, List<String> columns, RowSource source,
+                        Progress progress, long totalRows) throws IOException, SQLException {
+        boolean complete = false;
+        RowCounter rows = new RowCounter(progress, totalRows);
+        try (Writer writer = openWriter(file, gzip)) {
+            RecordWriter out = format == Format.JSON ? new JsonRecordWriter(writer, columns) : new CsvRecordWriter(writer);
+            out.begin(columns);
+            try {
+                source.stream(rows, out);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.end();
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(file);
+            }
+        }
+        progress.update(rows.written, totalRows);
+        return rows.written;
+    }
+    
+    private static Writer openWriter(Path file, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+        WritableByteChannel target = channel;
+        if (gzip) {
+            target = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        }
+        return new BufferedWriter(Channels.newWriter(target, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE),
+                                  BUFFER_SIZE);
+    }
+    
+    /**
+     * Writes rows from inside the DAO's streaming callback, reporting progress and stopping
+     * the stream when the thread is interrupted.
+     */
+    private static class RowCounter {
+        private final Progress progress;
+        private final long totalRows;
+        private long written;
+        
+        RowCounter(Progress progress, long totalRows) {
+            this.progress = progress;
+            this.totalRows = totalRows;
+        }
+        
+        void write(RecordWriter out, List<Object> record) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Export cancelled");
+            }
+            try {
+                out.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++written % PROGRESS_INTERVAL == 0) {
+                progress.update(written, totalRows);
+            }
+        }
+    }
+    
+    private interface RecordWriter {
+        void begin(List<String> columns) throws IOException;
+        
+        void write(List<Object> record) throws IOException;
+        
+        void end() throws IOException;
+    }
+    
+    private static class CsvRecordWriter implements RecordWriter {
+        private final CsvWriter csv;
+        
+        CsvRecordWriter(Writer writer) {
+            this.csv = new CsvWriter(writer);
+        }
+        
+        @Override
+        public void begin(List<String> columns) throws IOException {
+            csv.writeRecord(columns);
+        }
+        
+        @Override
+        public void write(List<Object> record) throws IOException {
+            csv.writeRecord(record);
+        }
+        
+        @Override
+        public void end() throws IOException {
+            csv.flush();
+        }
+    }
+    
+    /**
+     * A JSON array with one object per row, keyed by column name. Numbers are written as JSON
+     * numbers, everything else as strings.
+     */
+    private static class JsonRecordWriter implements RecordWriter {
+        private final Writer writer;
+        private final List<String> keys;
+        private boolean first = true;
+        
+        JsonRecordWriter(Writer writer, List<String> columns) {
+            this.writer = writer;
+            this.keys = columns.stream().map(JsonRecordWriter::quote).toList();
+        }
+        
+        @Override
+        public void begin(List<String> columns) throws IOException {
+            writer.write('[');
+        }
+        
+        @Override
+        public void write(List<Object> record) throws IOException {
+            writer.write(first ? "\n{" : ",\n{");
+            first = false;
+            for (int i = 0; i < record.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(keys.get(i));
+                writer.write(':');
+                Object value = record.get(i);
+                if (value == null) {
+                    writer.write("null");
+                } else if (value instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (value instanceof Number) {
+                    writer.write(value.toString());
+                } else {
+                    writer.write(quote(value.toString()));
+                }
+            }
+            writer.write('}');
+        }
+        
+        @Override
+        public void end() throws IOException {
+            writer.write("\n]\n");
+        }
+        
+        private static String quote(String value) {
+            StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> quoted.append("\\\"");
+                    case '\\' -> quoted.append("\\\\");
+                    case '\n' -> quoted.append("\\n");
+                    case '\r' -> quoted.append("\\r");
+                    case '\t' -> quoted.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            quoted.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            quoted.append(c);
+                        }
+                    }
+                }
+            }
+            return quoted.append('"').toString();
+        }
+    }
+}
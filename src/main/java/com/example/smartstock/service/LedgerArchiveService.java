@@ -0,0 +1,75 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.dao.LedgerArchiveDAO;
+import com.example.smartstock.db.DatabaseConnection;
+import com.example.smartstock.util.DbExecutor;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the last {@code archive.hotMonths} calendar months of the ledger (0, the default,
+ * disables archiving) in {@code stock_transactions} and moves everything older to the archive
+ * table. Runs once in the background at startup; the work is done in chunks of
+ * {@code archive.chunkSize} rows, one database transaction each.
+ */
+public class LedgerArchiveService {
+    private static LedgerArchiveService instance;
+    
+    private final LedgerArchiveDAO archiveDAO = new LedgerArchiveDAO();
+    private final int hotMonths;
+    private final int chunkSize;
+    
+    private LedgerArchiveService(int hotMonths, int chunkSize) {
+        this.hotMonths = hotMonths;
+        this.chunkSize = chunkSize;
+    }
+    
+    public static LedgerArchiveService getInstance() {
+        if (instance == null) {
+            synchronized (LedgerArchiveService.class) {
+                if (instance == null) {
+                    DatabaseConnection db = DatabaseConnection.getInstance();
+                    int hotMonths = Integer.parseInt(db.getProperty("archive.hotMonths", "0").trim());
+                    int chunkSize = Integer.parseInt(db.getProperty("archive.chunkSize", "5000").trim());
+                    instance = new LedgerArchiveService(hotMonths, Math.max(1, chunkSize));
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public void start() {
+        if (hotMonths <= 0) {
+            return;
+        }
+        DbExecutor.execute(() -> {
+            try {
+                archiveOldMonths();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+    
+    /**
+     * Archives every ledger row dated before the first day of the oldest hot month. Stops
+     * early, between chunks, if the calling thread is interrupted.
+     *
+     * @return the number of rows moved
+     */
+    public int archiveOldMonths() throws SQLException {
+        if (hotMonths <= 0 || !archiveDAO.isAvailable()) {
+            return 0;
+        }
+        
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(hotMonths - 1).atStartOfDay();
+        int moved = 0;
+        int chunk;
+        do {
+            chunk = archiveDAO.archiveChunk(cutoff, chunkSize);
+            moved += chunk;
+        } while (chunk == chunkSize && !Thread.currentThread().isInterrupted());
+        return moved;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.cache.ReferenceDataCache;
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.models.Category;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.Supplier;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory set of the products at or below their minimum stock.
+ * <p>
+ * It is seeded once from the {@code low_stock_products} view, together with the current and
+ * minimum stock of every product, and then kept current by the DAOs, which report every product
+ * edit and stock posting. Postings only report their per-product deltas, so crossings are worked
+ * out without reading the products back; only a product that newly drops to its minimum is
+ * loaded, for the details shown in the alert. Listeners are told whenever a product crosses the
+ * threshold in either direction, on the thread that made the change.
+ */
+public class LowStockTracker {
+    private static LowStockTracker instance;
+    
+    private final Map<Integer, Product> lowStock = new HashMap<>();
+    private final Map<Integer, StockLevel> levels = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Changes that arrive while seed() is running, replayed once the seed has been installed.
+    private List<Object> pendingChanges;
+    private volatile boolean seeded;
+    
+    private LowStockTracker() {}
+    
+    public static LowStockTracker getInstance() {
+        if (instance == null) {
+            synchronized (LowStockTracker.class) {
+                if (instance == null) {
+                    instance = new LowStockTracker();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public enum Change {
+        /** The product dropped to or below its minimum stock. */
+        BECAME_LOW,
+        /** The product was already low; its stock or details changed. */
+        STILL_LOW,
+        /** The product is back above its minimum stock, or was deleted. */
+        RECOVERED
+    }
+    
+    public record Event(Change change, Product product) {}
+    
+    public record StockLevel(int currentStock, int minimumStock) {
+        
+        public boolean isLow() {
+            return currentStock <= minimumStock;
+        }
+    }
+    
+    // A posting made while seed() was running, whose products are re-read after the seed.
+    private record Posting(List<Integer> productIds) {}
+    
+    @FunctionalInterface
+    public interface Listener {
+        void onLowStockChange(Event event);
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    public boolean isSeeded() {
+        return seeded;
+    }
+    
+    /**
+     * (Re)loads the set from the database. Called at startup and when the user explicitly
+     * refreshes, e.g. to pick up changes made by other clients.
+     *
+     * @return the low-stock products, by name
+     */
+    public List<Product> seed(ProductDAO productDAO) throws SQLException {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        
+        List<Product> products;
+        Map<Integer, StockLevel> stockLevels;
+        try {
+            products = productDAO.findLowStock();
+            stockLevels = productDAO.findStockLevels();
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+        
+        List<Object> replay;
+        synchronized (this) {
+            lowStock.clear();
+            for (Product product : products) {
+                lowStock.put(product.getProductId(), product);
+            }
+            levels.clear();
+            levels.putAll(stockLevels);
+            replay = pendingChanges;
+            pendingChanges = null;
+            seeded = true;
+        }
+        for (Object change : replay) {
+            if (change instanceof Product product) {
+                productChanged(product);
+            } else if (change instanceof Posting posting) {
+                // The seed may or may not include the posting, so its deltas cannot be replayed.
+                productsChanged(productDAO.findByIds(posting.productIds()));
+            } else {
+                productRemoved((Integer) change);
+            }
+        }
+        return snapshot();
+    }
+    
+    /**
+     * Copies of the products currently low on stock, by name.
+     */
+    public synchronized List<Product> snapshot() {
+        List<Product> products = new ArrayList<>(lowStock.size());
+        for (Product product : lowStock.values()) {
+            products.add(new Product(product));
+        }
+        products.sort(Comparator.comparing(Product::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return products;
+    }
+    
+    public synchronized int count() {
+        return lowStock.size();
+    }
+    
+    /**
+     * Records the committed state of {@code product} after an edit or stock posting.
+     */
+    public void productChanged(Product product) {
+        Event event;
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.add(new Product(product));
+            }
+            if (!seeded) {
+                return;
+            }
+            
+            Integer productId = product.getProductId();
+            levels.put(productId, new StockLevel(product.getCurrentStock(), product.getMinimumStock()));
+            boolean wasLow = lowStock.containsKey(productId);
+            if (product.isLowStock()) {
+                Product entry = withReferenceNames(new Product(product));
+                lowStock.put(productId, entry);
+                event = new Event(wasLow ? Change.STILL_LOW : Change.BECAME_LOW, new Product(entry));
+            } else if (wasLow) {
+                event = new Event(Change.RECOVERED, new Product(lowStock.remove(productId)));
+            } else {
+                return;
+            }
+        }
+        fire(event);
+    }
+    
+    public void productsChanged(List<Product> products) {
+        for (Product product : products) {
+            productChanged(product);
+        }
+    }
+    
+    /**
+     * Applies the committed stock changes of a posting, keyed by product ID. Products this client
+     * has no level for, e.g. ones added elsewhere since the seed, are left to the next seed.
+     */
+    public void stockPosted(Map<Integer, Integer> deltas, ProductDAO productDAO) {
+        List<Event> events = new ArrayList<>();
+        List<Integer> becameLow = new ArrayList<>();
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.add(new Posting(List.copyOf(deltas.keySet())));
+            }
+            if (!seeded) {
+                return;
+            }
+            
+            for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                Integer productId = delta.getKey();
+                StockLevel level = levels.get(productId);
+                if (level == null || delta.getValue() == 0) {
+                    continue;
+                }
+                level = new StockLevel(level.currentStock() + delta.getValue(), level.minimumStock());
+                levels.put(productId, level);
+                
+                Product entry = lowStock.get(productId);
+                if (entry != null) {
+                    entry.setCurrentStock(level.currentStock());
+                    if (level.isLow()) {
+                        events.add(new Event(Change.STILL_LOW, new Product(entry)));
+                    } else {
+                        lowStock.remove(productId);
+                        events.add(new Event(Change.RECOVERED, new Product(entry)));
+                    }
+                } else if (level.isLow()) {
+                    becameLow.add(productId);
+                }
+            }
+        }
+        for (Event event : events) {
+            fire(event);
+        }
+        
+        // The posting has already been committed, so a failure to load the details is only logged.
+        for (Integer productId : becameLow) {
+            try {
+                productDAO.findById(productId).ifPresent(this::stockDroppedToMinimum);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Reports a product that a posting took to its minimum, with the tracked stock level, which
+     * is newer than that of a product read from the cache.
+     */
+    private void stockDroppedToMinimum(Product details) {
+        Product product = new Product(details);
+        synchronized (this) {
+            StockLevel level = levels.get(product.getProductId());
+            if (level == null) {
+                return;
+            }
+            product.setCurrentStock(level.currentStock());
+            product.setMinimumStock(level.minimumStock());
+        }
+        productChanged(product);
+    }
+    
+    public void productRemoved(Integer productId) {
+        Product removed;
+        synchronized (this) {
+            if (pendingChanges != null) {
+                pendingChanges.add(productId);
+            }
+            levels.remove(productId);
+            removed = lowStock.remove(productId);
+        }
+        if (removed != null) {
+            fire(new Event(Change.RECOVERED, removed));
+        }
+    }
+    
+    private void fire(Event event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onLowStockChange(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Products saved from the edit form carry the IDs the user picked but possibly no, or
+     * outdated, category/supplier names; those are taken from the reference-data cache.
+     */
+    private static Product withReferenceNames(Product product) {
+        Optional<ReferenceDataCache.Snapshot> referenceData = ReferenceDataCache.getInstance().current();
+        if (referenceData.isPresent()) {
+            Category category = referenceData.get().category(product.getCategoryId());
+            Supplier supplier = referenceData.get().supplier(product.getSupplierId());
+            product.setCategoryName(category != null ? category.getName() : null);
+            product.setSupplierName(supplier != null ? supplier.getName() : null);
+        }
+        return product;
+    }
+}
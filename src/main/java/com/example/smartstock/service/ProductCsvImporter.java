@@ -0,0 +1,373 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.cache.ReferenceDataCache;
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.models.Category;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.Supplier;
+import com.example.smartstock.util.CsvReader;
+import com.example.smartstock.util.CsvWriter;
+import com.example.smartstock.util.ValidationUtil;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports products from a CSV file with a header row. Products are matched on SKU: unknown SKUs
+ * are inserted, known ones have their details overwritten (stock is only set for new products).
+ * <p>
+ * The file is streamed in chunks of {@value #CHUNK_SIZE} rows. Each chunk is validated in
+ * parallel, then written as one batched transaction, so memory use does not depend on the file
+ * size and a failure or cancellation keeps the chunks already written. Invalid rows are skipped
+ * and written, with the reason, to a {@code .rejected.csv} file next to the input. Rows are
+ * checked against the column sizes of {@code products}, and SKUs are matched the way the
+ * database compares them, ignoring case and trailing spaces. If the database still rejects a
+ * chunk because of its data, its rows are written one at a time and only the failing ones are
+ * rejected.
+ */
+public class ProductCsvImporter {
+    private static final int CHUNK_SIZE = 1000;
+    // Column sizes of products: name VARCHAR(200), sku VARCHAR(50), description TEXT (bytes),
+    // unit_price DECIMAL(10, 2).
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_SKU_LENGTH = 50;
+    private static final int MAX_DESCRIPTION_BYTES = 65_535;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    
+    /** Recognised header names; {@code name}, {@code sku} and {@code unit_price} are required. */
+    public static final List<String> COLUMNS = List.of(
+        "name", "sku", "description", "category", "supplier", "unit_price", "current_stock", "minimum_stock");
+    
+    @FunctionalInterface
+    public interface Progress {
+        void update(long bytesRead, long totalBytes, int imported, int rejected);
+    }
+    
+    /**
+     * @param rejectedReport the file listing the rejected rows, or {@code null} if there were none
+     */
+    public record Result(int inserted, int updated, int rejected, Path rejectedReport) {}
+    
+    private record Row(long line, List<String> fields) {}
+    
+    private record ValidatedRow(Row row, Product product, String error) {}
+    
+    private final ProductDAO productDAO;
+    
+    public ProductCsvImporter(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+    
+    /**
+     * Runs the import. Blocks on the database, so it must not be called on the JavaFX
+     * application thread. Stops after the current chunk if the calling thread is interrupted.
+     */
+    public Result run(Path file, Progress progress) throws IOException, SQLException {
+        ReferenceDataCache.Snapshot referenceData = ReferenceDataCache.getInstance().get();
+        Map<String, Integer> categoryIds = new HashMap<>();
+        for (Category category : referenceData.categories()) {
+            categoryIds.put(nameKey(category.getName()), category.getCategoryId());
+        }
+        Map<String, Integer> supplierIds = new HashMap<>();
+        for (Supplier supplier : referenceData.suppliers()) {
+            supplierIds.put(nameKey(supplier.getName()), supplier.getSupplierId());
+        }
+        
+        Import state = new Import(file, productDAO.findIdsBySku(), categoryIds, supplierIds);
+        long totalBytes = Files.size(file);
+        
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            state.mapHeader(header);
+            
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<String> fields;
+            while ((fields = csv.readRecord()) != null) {
+                chunk.add(new Row(csv.getRecordLine(), fields));
+                if (chunk.size() == CHUNK_SIZE) {
+                    state.importChunk(chunk);
+                    chunk.clear();
+                    progress.update(in.getCount(), totalBytes, state.inserted + state.updated, state.rejected);
+                    if (Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                }
+            }
+            if (!chunk.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                state.importChunk(chunk);
+            }
+            progress.update(in.getCount(), totalBytes, state.inserted + state.updated, state.rejected);
+        } finally {
+            state.closeReport();
+        }
+        return new Result(state.inserted, state.updated, state.rejected, state.reportFile);
+    }
+    
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Whether {@code e} was caused by the data of a row: a value out of range or too long
+     * (SQLSTATE class 22) or a duplicate key, foreign key or check failure (class 23), as opposed
+     * to a connection or server problem that should abort the import.
+     */
+    private static boolean isRowError(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null &&
+                (sqlException.getSQLState().startsWith("22") || sqlException.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Per-run state: the lookup maps, the SKUs seen so far and the rejected-rows report.
+     */
+    private class Import {
+        private final Path file;
+        private final Map<String, Integer> productIdsBySku;
+        private final Map<String, Integer> categoryIds;
+        private final Map<String, Integer> supplierIds;
+        // Line each SKU key was first seen on, to reject later duplicates within the file.
+        private final Map<String, Long> skuLines = new HashMap<>();
+        private final int[] columnIndex = new int[COLUMNS.size()];
+        private List<String> header;
+        
+        private Path reportFile;
+        private CsvWriter report;
+        private int inserted;
+        private int updated;
+        private int rejected;
+        
+        Import(Path file, Map<String, Integer> productIdsBySku, Map<String, Integer> categoryIds,
+               Map<String, Integer> supplierIds) {
+            this.file = file;
+            this.productIdsBySku = productIdsBySku;
+            this.categoryIds = categoryIds;
+            this.supplierIds = supplierIds;
+        }
+        
+        void mapHeader(List<String> header) throws IOException {
+            this.header = header;
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                columnIndex[i] = -1;
+                for (int j = 0; j < header.size(); j++) {
+                    if (COLUMNS.get(i).equalsIgnoreCase(header.get(j).trim())) {
+                        columnIndex[i] = j;
+                    }
+                }
+            }
+            for (String required : List.of("name", "sku", "unit_price")) {
+                if (columnIndex[COLUMNS.indexOf(required)] < 0) {
+                    throw new IOException("Missing required column \"" + required + "\"; expected columns: " +
+                                          String.join(", ", COLUMNS));
+                }
+            }
+        }
+        
+        void importChunk(List<Row> chunk) throws IOException, SQLException {
+            // Validation only reads the lookup maps, so rows can be checked on several threads.
+            List<ValidatedRow> validated = chunk.parallelStream().map(this::validate).toList();
+            
+            List<ValidatedRow> newRows = new ArrayList<>();
+            List<ValidatedRow> existingRows = new ArrayList<>();
+            for (ValidatedRow row : validated) {
+                if (row.error() != null) {
+                    reject(row.row(), row.error());
+                    continue;
+                }
+                Product product = row.product();
+                String skuKey = ProductDAO.skuKey(product.getSku());
+                Long firstLine = skuLines.putIfAbsent(skuKey, row.row().line());
+                if (firstLine != null) {
+                    reject(row.row(), "Duplicate SKU, first used on line " + firstLine);
+                    continue;
+                }
+                Integer existingId = productIdsBySku.get(skuKey);
+                if (existingId != null) {
+                    product.setProductId(existingId);
+                    existingRows.add(row);
+                } else {
+                    newRows.add(row);
+                }
+            }
+            
+            try {
+                productDAO.importBatch(products(newRows), products(existingRows));
+                inserted += newRows.size();
+                updated += existingRows.size();
+            } catch (SQLException e) {
+                if (!isRowError(e)) {
+                    throw e;
+                }
+                // The chunk was rolled back; write its rows one at a time to find the offending ones.
+                for (ValidatedRow row : newRows) {
+                    if (importRow(row, List.of(row.product()), List.of())) {
+                        inserted++;
+                    }
+                }
+                for (ValidatedRow row : existingRows) {
+                    if (importRow(row, List.of(), List.of(row.product()))) {
+                        updated++;
+                    }
+                }
+            }
+        }
+        
+        private boolean importRow(ValidatedRow row, List<Product> newProducts, List<Product> existingProducts)
+                throws IOException, SQLException {
+            try {
+                productDAO.importBatch(newProducts, existingProducts);
+                return true;
+            } catch (SQLException e) {
+                if (!isRowError(e)) {
+                    throw e;
+                }
+                reject(row.row(), "Rejected by the database: " + e.getMessage());
+                return false;
+            }
+        }
+        
+        private static List<Product> products(List<ValidatedRow> rows) {
+            return rows.stream().map(ValidatedRow::product).toList();
+        }
+        
+        private ValidatedRow validate(Row row) {
+            String name = field(row, "name");
+            String sku = field(row, "sku");
+            String price = field(row, "unit_price");
+            String stock = field(row, "current_stock");
+            String minStock = field(row, "minimum_stock");
+            String category = field(row, "category");
+            String supplier = field(row, "supplier");
+            
+            String description = field(row, "description");
+            
+            if (ValidationUtil.isNullOrEmpty(name)) {
+                return new ValidatedRow(row, null, "Name is required");
+            }
+            if (name.length() > MAX_NAME_LENGTH) {
+                return new ValidatedRow(row, null, "Name is longer than " + MAX_NAME_LENGTH + " characters");
+            }
+            if (ValidationUtil.isNullOrEmpty(sku)) {
+                return new ValidatedRow(row, null, "SKU is required");
+            }
+            if (sku.length() > MAX_SKU_LENGTH) {
+                return new ValidatedRow(row, null, "SKU is longer than " + MAX_SKU_LENGTH + " characters");
+            }
+            if (description.getBytes(StandardCharsets.UTF_8).length > MAX_DESCRIPTION_BYTES) {
+                return new ValidatedRow(row, null, "Description is longer than " + MAX_DESCRIPTION_BYTES + " bytes");
+            }
+            if (!ValidationUtil.isValidDecimal(price) || new BigDecimal(price).signum() < 0 ||
+                new BigDecimal(price).setScale(2, RoundingMode.HALF_UP).compareTo(MAX_PRICE) > 0) {
+                return new ValidatedRow(row, null, "Invalid price \"" + price + "\"");
+            }
+            if (!stock.isEmpty() && (!ValidationUtil.isValidNumber(stock) || Integer.parseInt(stock) < 0)) {
+                return new ValidatedRow(row, null, "Invalid stock quantity \"" + stock + "\"");
+            }
+            if (!minStock.isEmpty() && (!ValidationUtil.isValidNumber(minStock) || Integer.parseInt(minStock) < 0)) {
+                return new ValidatedRow(row, null, "Invalid minimum stock \"" + minStock + "\"");
+            }
+            Integer categoryId = category.isEmpty() ? null : categoryIds.get(nameKey(category));
+            if (!category.isEmpty() && categoryId == null) {
+                return new ValidatedRow(row, null, "Unknown category \"" + category + "\"");
+            }
+            Integer supplierId = supplier.isEmpty() ? null : supplierIds.get(nameKey(supplier));
+            if (!supplier.isEmpty() && supplierId == null) {
+                return new ValidatedRow(row, null, "Unknown supplier \"" + supplier + "\"");
+            }
+            
+            Product product = new Product();
+            product.setName(name);
+            product.setSku(sku);
+            product.setDescription(description);
+            product.setCategoryId(categoryId);
+            product.setSupplierId(supplierId);
+            product.setUnitPrice(new BigDecimal(price));
+            product.setCurrentStock(stock.isEmpty() ? 0 : Integer.parseInt(stock));
+            product.setMinimumStock(minStock.isEmpty() ? 0 : Integer.parseInt(minStock));
+            return new ValidatedRow(row, product, null);
+        }
+        
+        private String field(Row row, String column) {
+            int index = columnIndex[COLUMNS.indexOf(column)];
+            return index < 0 || index >= row.fields().size() ? "" : row.fields().get(index).trim();
+        }
+        
+        private void reject(Row row, String reason) throws IOException {
+            if (report == null) {
+                reportFile = file.resolveSibling(file.getFileName() + ".rejected.csv");
+                report = new CsvWriter(Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8));
+                List<Object> reportHeader = new ArrayList<>(List.of("line", "reason"));
+                reportHeader.addAll(header);
+                report.writeRecord(reportHeader);
+            }
+            List<Object> record = new ArrayList<>(List.of(row.line(), reason));
+            record.addAll(row.fields());
+            report.writeRecord(record);
+            rejected++;
+        }
+        
+        void closeReport() throws IOException {
+            if (report != null) {
+                report.close();
+            }
+        }
+    }
+    
+    /**
+     * Counts the bytes read, for progress reporting against the file size.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.dao.OptimisticLockException;
+import com.example.smartstock.dao.ProductDAO;
+import com.example.smartstock.models.Product;
+import com.example.smartstock.models.Product.Field;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Saves product edits under optimistic concurrency. When another user saved the product after
+ * the edit started, their changes are merged in and the update retried, as long as the two
+ * edits touched different fields; otherwise the conflict is handed back for the user to resolve.
+ */
+public class ProductUpdateService {
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private final ProductDAO productDAO;
+    
+    public ProductUpdateService(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+    
+    /**
+     * Both sides' values of an edit that could not be merged automatically.
+     *
+     * @param base   the values this user's edit started from
+     * @param fields the fields both users changed, to different values
+     */
+    public record Conflict(Product base, Product mine, Product theirs, Set<Field> fields) {
+        
+        /**
+         * The stored product with all of this user's changes applied on top, at the stored
+         * version: saving it overrides the other user's values for the conflicting fields only.
+         */
+        public Product keepMine() {
+            Product merged = new Product(theirs);
+            for (Field field : Field.values()) {
+                if (field.differs(base, mine)) {
+                    field.copy(mine, merged);
+                }
+            }
+            return merged;
+        }
+    }
+    
+    /**
+     * Saves {@code edited}, whose edit started from {@code base}. Blocks on the database, so it
+     * must not be called on the JavaFX application thread.
+     *
+     * @return empty once saved, or the conflict if both users changed the same field
+     * @throws SQLException if the product was deleted, or it kept changing over
+     *                      {@value #MAX_ATTEMPTS} attempts
+     */
+    public Optional<Conflict> update(Product base, Product edited) throws SQLException {
+        Product from = base;
+        Product mine = edited;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                productDAO.update(mine);
+                return Optional.empty();
+            } catch (OptimisticLockException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Product theirs = productDAO.findById(edited.getProductId())
+                    .orElseThrow(() -> new SQLException("Product " + edited.getProductId() +
+                                                        " was deleted by another user"));
+                
+                Set<Field> conflicting = EnumSet.noneOf(Field.class);
+                Product merged = new Product(theirs);
+                for (Field field : Field.values()) {
+                    if (!field.differs(from, mine)) {
+                        continue;
+                    }
+                    if (field.differs(from, theirs) && field.differs(mine, theirs)) {
+                        conflicting.add(field);
+                    }
+                    field.copy(mine, merged);
+                }
+                if (!conflicting.isEmpty()) {
+                    return Optional.of(new Conflict(from, mine, theirs, conflicting));
+                }
+                from = theirs;
+                mine = merged;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.dao.StockMovementDAO;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Fills the daily movement rollup from the existing ledger, one calendar month per database
+ * transaction so that each step holds its locks only briefly. Safe to re-run: every month is
+ * recomputed from scratch.
+ */
+public class StockMovementBackfill {
+    
+    @FunctionalInterface
+    public interface Progress {
+        void monthDone(LocalDate month, int monthsDone, int monthsTotal);
+    }
+    
+    private final StockMovementDAO movementDAO;
+    
+    public StockMovementBackfill(StockMovementDAO movementDAO) {
+        this.movementDAO = movementDAO;
+    }
+    
+    /**
+     * Rebuilds every month from the oldest ledger row up to and including today. Stops early,
+     * between months, if the calling thread is interrupted.
+     *
+     * @return the number of product-days written
+     */
+    public int run(Progress progress) throws SQLException {
+        Optional<LocalDate> first = movementDAO.findFirstLedgerDate();
+        if (first.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDate start = first.get().withDayOfMonth(1);
+        LocalDate end = LocalDate.now().plusDays(1);
+        int monthsTotal = 0;
+        for (LocalDate month = start; month.isBefore(end); month = month.plusMonths(1)) {
+            monthsTotal++;
+        }
+        
+        int written = 0;
+        int monthsDone = 0;
+        for (LocalDate month = start; month.isBefore(end); month = month.plusMonths(1)) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            LocalDate next = month.plusMonths(1);
+            written += movementDAO.rebuild(month, next.isBefore(end) ? next : end);
+            progress.monthDone(month, ++monthsDone, monthsTotal);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.smartstock.service;
+
+import com.example.smartstock.dao.StockSnapshotDAO;
+import com.example.smartstock.db.DatabaseConnection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a stock balance checkpoint for every product once every {@code snapshot.intervalDays}
+ * days (default 30, 0 disables). Checked at startup and every few hours after that, so a
+ * checkpoint that fell due while the application was closed is taken on the next start.
+ */
+public class StockSnapshotService {
+    private static final long CHECK_INTERVAL_HOURS = 6;
+    
+    private static StockSnapshotService instance;
+    
+    private final StockSnapshotDAO snapshotDAO = new StockSnapshotDAO();
+    private final int intervalDays;
+    private ScheduledExecutorService scheduler;
+    
+    private StockSnapshotService(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+    
+    public static StockSnapshotService getInstance() {
+        if (instance == null) {
+            synchronized (StockSnapshotService.class) {
+                if (instance == null) {
+                    String intervalDays = DatabaseConnection.getInstance().getProperty("snapshot.intervalDays", "30");
+                    instance = new StockSnapshotService(Integer.parseInt(intervalDays.trim()));
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public synchronized void start() {
+        if (intervalDays <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smartstock-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, 0, CHECK_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+    
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Takes today's checkpoint now, regardless of when the last one was taken.
+     *
+     * @return the number of products checkpointed
+     */
+    public int checkpointNow() throws SQLException {
+        return snapshotDAO.checkpoint(LocalDate.now());
+    }
+    
+    private void checkpointIfDue() {
+        try {
+            Optional<LocalDate> latest = snapshotDAO.findLatestSnapshotDate();
+            if (latest.isEmpty() || !latest.get().plusDays(intervalDays).isAfter(LocalDate.now())) {
+                checkpointNow();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
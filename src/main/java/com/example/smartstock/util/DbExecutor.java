@@ -0,0 +1,36 @@
+package com.example.smartstock.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared background executor for database work, so JDBC calls stay off the JavaFX application
+ * thread. The pool is bounded to keep concurrent queries below the connection pool size.
+ */
+public final class DbExecutor {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Integer.getInteger("smartstock.dbThreads", 4),
+        runnable -> {
+            Thread thread = new Thread(runnable, "smartstock-db-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    
+    private DbExecutor() {}
+    
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+    
+    public static <T> Future<T> submit(Callable<T> task) {
+        return EXECUTOR.submit(task);
+    }
+    
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
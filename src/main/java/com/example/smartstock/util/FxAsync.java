@@ -0,0 +1,88 @@
+package com.example.smartstock.util;
+
+import com.example.smartstock.metrics.ViewLoadEvent;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking work on {@link DbExecutor} and hands the result back on the JavaFX application
+ * thread, so controllers never call DAOs directly from event handlers.
+ */
+public final class FxAsync {
+    
+    private FxAsync() {}
+    
+    /**
+     * Runs {@code work} in the background; {@code onSuccess} or {@code onFailure} is then called
+     * on the FX thread.
+     */
+    public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> onFailure.accept(task.getException()));
+        DbExecutor.execute(task);
+        return task;
+    }
+    
+    /**
+     * Like {@link #run}, but shows a progress indicator in {@code table} while the work runs.
+     * The whole cycle, up to and including {@code onSuccess} or {@code onFailure}, is recorded
+     * as a JFR {@link ViewLoadEvent} named after the calling controller method.
+     */
+    public static <T> Task<T> load(TableView<?> table, Callable<T> work,
+                                   Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        ViewLoadEvent event = new ViewLoadEvent();
+        event.begin();
+        String view = event.isEnabled() ? callerName() : null;
+        
+        Node placeholder = table.getPlaceholder();
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setMaxSize(48, 48);
+        table.setPlaceholder(indicator);
+        table.setDisable(true);
+        
+        return run(work,
+            result -> {
+                table.setPlaceholder(placeholder);
+                table.setDisable(false);
+                try {
+                    onSuccess.accept(result);
+                } finally {
+                    event.finish(view, "load", false);
+                }
+            },
+            error -> {
+                table.setPlaceholder(placeholder);
+                table.setDisable(false);
+                try {
+                    onFailure.accept(error);
+                } finally {
+                    event.finish(view, "load", true);
+                }
+            });
+    }
+    
+    private static String callerName() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+            .filter(frame -> frame.getDeclaringClass() != FxAsync.class)
+            .findFirst()
+            .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+            .orElse("unknown"));
+    }
+    
+    /**
+     * Failure handler that shows the usual "Database Error" alert with {@code message} as prefix.
+     */
+    public static Consumer<Throwable> showError(String message) {
+        return error -> AlertUtil.showError("Database Error", message + ": " + error.getMessage());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.smartstock.util;
+
+import com.example.smartstock.metrics.UiMetrics;
+import javafx.application.Platform;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Watches the JavaFX application thread for stalls. Every 100 ms a background thread posts a
+ * heartbeat with {@code Platform.runLater}; how long it waits to run is recorded in
+ * {@link UiMetrics}. Once a heartbeat has waited {@code -Dsmartstock.fxStallMs} (default 500),
+ * the FX thread's stack is captured while it is still stuck, so the stall can be traced to the
+ * code that blocked it. When the heartbeat finally runs the stall is printed and kept in a ring
+ * buffer of the last {@code -Dsmartstock.fxStallHistory} (default 50) stalls.
+ * <p>
+ * Only one heartbeat is outstanding at a time, so a frozen UI is not flooded.
+ */
+public final class FxStallWatchdog {
+    private static final long INTERVAL_MS = 100;
+    private static final long STALL_THRESHOLD_NANOS = Long.getLong("smartstock.fxStallMs", 500) * 1_000_000;
+    private static final int HISTORY_SIZE = Math.max(1, Integer.getInteger("smartstock.fxStallHistory", 50));
+    private static final int PRINTED_FRAMES = 15;
+    
+    private static ScheduledExecutorService scheduler;
+    private static volatile Thread fxThread;
+    // nanoTime the outstanding heartbeat was posted at, or 0 if none is outstanding.
+    private static final AtomicLong pendingSince = new AtomicLong();
+    private static final AtomicReference<Capture> capture = new AtomicReference<>();
+    private static final Deque<Stall> history = new ArrayDeque<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    private FxStallWatchdog() {}
+    
+    /**
+     * One stall: when it started, how long the FX thread did not respond and what it was doing
+     * once the threshold had passed. {@code stack} is empty if the stall ended before it could be
+     * sampled.
+     */
+    public record Stall(Instant startedAt, long durationMillis, List<StackTraceElement> stack) {
+        
+        /**
+         * The innermost application frame, or the top frame if there is none.
+         */
+        public String location() {
+            for (StackTraceElement frame : stack) {
+                if (frame.getClassName().startsWith("com.example.smartstock.")) {
+                    return frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) +
+                           "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                }
+            }
+            return stack.isEmpty() ? "(not sampled)" : stack.get(0).toString();
+        }
+        
+        public String stackTrace() {
+            StringBuilder text = new StringBuilder();
+            for (StackTraceElement frame : stack) {
+                text.append("    at ").append(frame).append('\n');
+            }
+            return text.toString();
+        }
+    }
+    
+    /**
+     * Told about every stall, on the JavaFX application thread.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onStall(Stall stall);
+    }
+    
+    private record Capture(long posted, StackTraceElement[] stack) {}
+    
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smartstock-fx-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(FxStallWatchdog::tick, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    public static long getThresholdMillis() {
+        return STALL_THRESHOLD_NANOS / 1_000_000;
+    }
+    
+    /**
+     * The most recent stalls, newest first.
+     */
+    public static List<Stall> recentStalls() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+    
+    public static void clearHistory() {
+        synchronized (history) {
+            history.clear();
+        }
+    }
+    
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    private static void tick() {
+        long posted = pendingSince.get();
+        if (posted == 0) {
+            post();
+            return;
+        }
+        
+        Thread thread = fxThread;
+        Capture current = capture.get();
+        if (thread != null && (current == null || current.posted() != posted) &&
+            System.nanoTime() - posted >= STALL_THRESHOLD_NANOS) {
+            StackTraceElement[] stack = thread.getStackTrace();
+            // The heartbeat may have run while the stack was taken; then the sample belongs to no stall.
+            if (pendingSince.get() == posted) {
+                capture.set(new Capture(posted, stack));
+            }
+        }
+    }
+    
+    private static void post() {
+        long posted = System.nanoTime();
+        pendingSince.set(posted);
+        Platform.runLater(() -> {
+            long delay = System.nanoTime() - posted;
+            fxThread = Thread.currentThread();
+            pendingSince.set(0);
+            Capture sample = capture.getAndSet(null);
+            
+            UiMetrics.getInstance().recordHeartbeat(delay);
+            if (delay >= STALL_THRESHOLD_NANOS) {
+                StackTraceElement[] stack = sample != null && sample.posted() == posted
+                    ? sample.stack() : new StackTraceElement[0];
+                recordStall(new Stall(Instant.now().minusNanos(delay), delay / 1_000_000, List.of(stack)), delay);
+            }
+        });
+    }
+    
+    private static void recordStall(Stall stall, long delayNanos) {
+        UiMetrics.getInstance().recordStall(delayNanos);
+        synchronized (history) {
+            if (history.size() == HISTORY_SIZE) {
+                history.removeLast();
+            }
+            history.addFirst(stall);
+        }
+        
+        StringBuilder message = new StringBuilder("JavaFX application thread stalled for ")
+            .append(stall.durationMillis()).append(" ms in ").append(stall.location());
+        List<StackTraceElement> frames = stall.stack();
+        for (int i = 0; i < Math.min(PRINTED_FRAMES, frames.size()); i++) {
+            message.append("\n    at ").append(frames.get(i));
+        }
+        System.out.println(message);
+        
+        for (Listener listener : listeners) {
+            try {
+                listener.onStall(stall);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
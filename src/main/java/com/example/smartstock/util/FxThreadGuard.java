@@ -0,0 +1,28 @@
+package com.example.smartstock.util;
+
+import javafx.application.Platform;
+
+/**
+ * Debug check that database work never runs on the JavaFX application thread. Enabled with
+ * {@code -Dsmartstock.checkFxThread=true} or when assertions are on ({@code -ea}); otherwise
+ * {@link #assertNotFxThread} does nothing.
+ */
+public final class FxThreadGuard {
+    private static final boolean ENABLED = Boolean.getBoolean("smartstock.checkFxThread") || assertionsEnabled();
+    
+    private FxThreadGuard() {}
+    
+    public static void assertNotFxThread(String operation) {
+        if (ENABLED && Platform.isFxApplicationThread()) {
+            throw new IllegalStateException(operation + " called on the JavaFX application thread; " +
+                                            "run it through FxAsync or DbExecutor instead");
+        }
+    }
+    
+    @SuppressWarnings("AssertWithSideEffects")
+    private static boolean assertionsEnabled() {
+        boolean enabled = false;
+        assert enabled = true;
+        return enabled;
+    }
+}
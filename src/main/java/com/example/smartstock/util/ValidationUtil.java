@@ -1,8 +1,18 @@
 package com.example.smartstock.util;
 
 import java.math.BigDecimal;
+import java.util.regex.Pattern;
 
+/**
+ * Input checks shared by the forms and the CSV import. The patterns are compiled once, since
+ * the import runs these checks on every field of every row, from several threads at once.
+ */
 public class ValidationUtil {
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final Pattern PHONE = Pattern.compile("^\\+?[0-9]{10,15}$");
+    // Shape checks ahead of parsing, so invalid input is rejected without the cost of an exception.
+    private static final Pattern INTEGER = Pattern.compile("^[+-]?[0-9]{1,10}$");
+    private static final Pattern DECIMAL = Pattern.compile("^[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([eE][+-]?[0-9]+)?$");
     
     public static boolean isNullOrEmpty(String str) {
         return str == null || str.trim().isEmpty();
@@ -10,16 +20,16 @@ public class ValidationUtil {
     
     public static boolean isValidEmail(String email) {
         if (isNullOrEmpty(email)) return false;
-        return email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+        return EMAIL.matcher(email).matches();
     }
     
     public static boolean isValidPhone(String phone) {
         if (isNullOrEmpty(phone)) return false;
-        return phone.matches("^\\+?[0-9]{10,15}$");
+        return PHONE.matcher(phone).matches();
     }
     
     public static boolean isValidNumber(String str) {
-        if (isNullOrEmpty(str)) return false;
+        if (isNullOrEmpty(str) || !INTEGER.matcher(str).matches()) return false;
         try {
             Integer.parseInt(str);
             return true;
@@ -29,7 +39,7 @@ public class ValidationUtil {
     }
     
     public static boolean isValidDecimal(String str) {
-        if (isNullOrEmpty(str)) return false;
+        if (isNullOrEmpty(str) || !DECIMAL.matcher(str).matches()) return false;
         try {
             new BigDecimal(str);
             return true;
@@ -37,4 +47,4 @@ public class ValidationUtil {
             return false;
         }
     }
-}
\ No newline at end of file
+}
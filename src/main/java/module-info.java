@@ -3,6 +3,8 @@ module com.example.smartstock {
     requires javafx.fxml;
     requires javafx.graphics;
     requires java.sql;
+    requires java.management;
+    requires jdk.jfr;
     requires org.mariadb.jdbc;
     requires org.controlsfx.controls;
 
@@ -11,9 +13,13 @@ module com.example.smartstock {
     opens com.example.smartstock.models to javafx.base;
 
     exports com.example.smartstock;
+    exports com.example.smartstock.cache;
     exports com.example.smartstock.controllers;
     exports com.example.smartstock.dao;
+    exports com.example.smartstock.metrics;
     exports com.example.smartstock.models;
+    exports com.example.smartstock.search;
+    exports com.example.smartstock.service;
     exports com.example.smartstock.util;
     exports com.example.smartstock.db;
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+-- Baseline schema: the tables and the low-stock view the application was
+-- originally set up with by hand (see README "Database Schema"). On a
+-- database created that way every statement is a no-op; on an empty one it
+-- creates the schema. Later migrations add indexes and features on top.
+-- Safe to run more than once.
+CREATE TABLE IF NOT EXISTS categories (
+    category_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS suppliers (
+    supplier_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(150) NOT NULL,
+    contact_person VARCHAR(100),
+    email VARCHAR(150),
+    phone VARCHAR(20),
+    address TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    product_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(200) NOT NULL,
+    description TEXT,
+    sku VARCHAR(50),
+    category_id INT,
+    supplier_id INT,
+    unit_price DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    current_stock INT NOT NULL DEFAULT 0,
+    minimum_stock INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id)
+        REFERENCES categories (category_id) ON DELETE SET NULL,
+    CONSTRAINT fk_products_supplier FOREIGN KEY (supplier_id)
+        REFERENCES suppliers (supplier_id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS stock_transactions (
+    transaction_id INT AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    transaction_type ENUM('IN', 'OUT') NOT NULL,
+    quantity INT NOT NULL,
+    transaction_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    reference VARCHAR(100),
+    notes TEXT,
+    CONSTRAINT fk_stock_transactions_product FOREIGN KEY (product_id)
+        REFERENCES products (product_id) ON DELETE CASCADE
+);
+
+-- Read by ProductDAO.findLowStock to seed the low-stock tracker.
+CREATE OR REPLACE VIEW low_stock_products AS
+SELECT p.product_id, p.name, p.sku, c.name AS category, s.name AS supplier,
+       p.current_stock, p.minimum_stock, p.unit_price
+FROM products p
+LEFT JOIN categories c ON p.category_id = c.category_id
+LEFT JOIN suppliers s ON p.supplier_id = s.supplier_id
+WHERE p.current_stock <= p.minimum_stock;
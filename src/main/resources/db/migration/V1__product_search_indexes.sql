@@ -0,0 +1,5 @@
+-- Server-side product search: FULLTEXT over name/description for ProductDAO's
+-- NATURAL_LANGUAGE and BOOLEAN search modes, plus a B-tree index on sku for
+-- prefix lookups. Safe to run more than once.
+CREATE FULLTEXT INDEX IF NOT EXISTS ft_products_name_description ON products (name, description);
+CREATE INDEX IF NOT EXISTS idx_products_sku ON products (sku);
@@ -0,0 +1,9 @@
+-- Transaction history paging: StockTransactionDAO.findPage seeks on
+-- (transaction_date, transaction_id) descending, optionally narrowed by product,
+-- type or reference prefix. Each filter gets a composite index ending in the
+-- sort key so pages are read in index order without a filesort. Safe to run
+-- more than once.
+CREATE INDEX IF NOT EXISTS idx_st_date_id ON stock_transactions (transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_product_date_id ON stock_transactions (product_id, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_type_date_id ON stock_transactions (transaction_type, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_reference ON stock_transactions (reference, transaction_date, transaction_id);
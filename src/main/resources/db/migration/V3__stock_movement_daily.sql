@@ -0,0 +1,18 @@
+-- Daily per-product IN/OUT totals for movement reports. StockTransactionDAO
+-- adds each posting here in the same transaction as the ledger rows, and
+-- StockMovementDAO.rebuild() fills it from existing history. Reports group
+-- these rows by day, week or month instead of scanning stock_transactions.
+-- Safe to run more than once.
+CREATE TABLE IF NOT EXISTS stock_movement_daily (
+    product_id INT NOT NULL,
+    movement_date DATE NOT NULL,
+    units_in INT NOT NULL DEFAULT 0,
+    units_out INT NOT NULL DEFAULT 0,
+    transaction_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, movement_date),
+    CONSTRAINT fk_movement_daily_product FOREIGN KEY (product_id)
+        REFERENCES products (product_id) ON DELETE CASCADE
+);
+
+-- All-product trend reports filter on the date alone.
+CREATE INDEX IF NOT EXISTS idx_movement_daily_date ON stock_movement_daily (movement_date, product_id);
@@ -0,0 +1,18 @@
+-- Per-product stock balance checkpoints for point-in-time ("as of") stock
+-- queries. balance is the stock at the start of snapshot_date, i.e. after
+-- every ledger row dated before it. StockSnapshotService writes one row per
+-- product every snapshot.intervalDays; StockSnapshotDAO starts from the
+-- nearest checkpoint and applies only the ledger rows in between. Safe to
+-- run more than once.
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    product_id INT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    balance INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, snapshot_date),
+    CONSTRAINT fk_stock_snapshots_product FOREIGN KEY (product_id)
+        REFERENCES products (product_id) ON DELETE CASCADE
+);
+
+-- Finding the latest checkpoint date without scanning per product.
+CREATE INDEX IF NOT EXISTS idx_stock_snapshots_date ON stock_snapshots (snapshot_date);
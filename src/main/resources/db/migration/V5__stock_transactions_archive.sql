@@ -0,0 +1,20 @@
+-- Archive for old ledger rows. LedgerArchiveService moves the oldest rows of
+-- stock_transactions here in bulk, oldest first, so every archived row is
+-- dated at or before every row left in stock_transactions. StockTransactionDAO
+-- relies on that to read only the table(s) a date range can touch, and reads
+-- the recent ("hot") table alone for everything newer than its oldest row.
+-- Created with LIKE so the column list stays identical and rows can be moved
+-- with INSERT ... SELECT *. Safe to run more than once.
+CREATE TABLE IF NOT EXISTS stock_transactions_archive LIKE stock_transactions;
+
+-- LIKE copies indexes but not foreign keys. Archived rows are deleted with
+-- their product, like the hot rows, snapshots and daily movements.
+ALTER TABLE stock_transactions_archive
+    ADD CONSTRAINT fk_stock_transactions_archive_product FOREIGN KEY IF NOT EXISTS (product_id)
+        REFERENCES products (product_id) ON DELETE CASCADE;
+
+-- Same access paths as the hot table (see V2__transaction_history_indexes.sql).
+CREATE INDEX IF NOT EXISTS idx_st_date_id ON stock_transactions_archive (transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_product_date_id ON stock_transactions_archive (product_id, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_type_date_id ON stock_transactions_archive (transaction_type, transaction_date, transaction_id);
+CREATE INDEX IF NOT EXISTS idx_st_reference ON stock_transactions_archive (reference, transaction_date, transaction_id);
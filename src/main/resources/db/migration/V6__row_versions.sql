@@ -0,0 +1,9 @@
+-- Row versions for optimistic concurrency. Every edit through ProductDAO,
+-- CategoryDAO or SupplierDAO.update matches on the version it read and
+-- increments it; an update that finds a different version fails instead of
+-- overwriting another workstation's change. Stock postings do not touch
+-- products.version, since edits no longer write current_stock. Required by
+-- the application. Safe to run more than once.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+ALTER TABLE suppliers ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- Secondary indexes for the product queries. Safe to run more than once.
+--
+-- Catalog paging (ProductDAO.findPage/streamAll) seeks on (name, product_id),
+-- optionally within one category or supplier; each access path gets an index
+-- ending in that sort key so pages are read in index order.
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, product_id);
+CREATE INDEX IF NOT EXISTS idx_products_category_name_id ON products (category_id, name, product_id);
+CREATE INDEX IF NOT EXISTS idx_products_supplier_name_id ON products (supplier_id, name, product_id);
+
+-- SKUs identify products (lookups, the product cache, CSV import), so they
+-- must be unique. Blank SKUs become NULL, which may repeat. If this step
+-- fails with a duplicate entry error, rename the duplicate SKUs and restart.
+UPDATE products SET sku = NULL WHERE sku = '';
+CREATE UNIQUE INDEX IF NOT EXISTS uq_products_sku ON products (sku);
+-- Superseded by uq_products_sku.
+DROP INDEX IF EXISTS idx_products_sku ON products;
+
+-- Stock history per product (StockTransactionDAO.findByProductId, the
+-- movement rollup and stock-as-of queries) uses idx_st_product_date_id from
+-- V2__transaction_history_indexes.sql.